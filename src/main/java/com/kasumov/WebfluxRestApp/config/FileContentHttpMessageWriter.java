@@ -0,0 +1,43 @@
+package com.kasumov.WebfluxRestApp.config;
+
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.ReactiveHttpOutputMessage;
+import org.springframework.http.ZeroCopyHttpOutputMessage;
+import org.springframework.http.codec.HttpMessageWriter;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public class FileContentHttpMessageWriter implements HttpMessageWriter<FileContentDTO> {
+
+    @Override
+    public List<MediaType> getWritableMediaTypes() {
+        return List.of(MediaType.ALL);
+    }
+
+    @Override
+    public boolean canWrite(ResolvableType elementType, MediaType mediaType) {
+        return FileContentDTO.class.isAssignableFrom(elementType.toClass());
+    }
+
+    @Override
+    public Mono<Void> write(Publisher<? extends FileContentDTO> inputStream, ResolvableType elementType,
+                            MediaType mediaType, ReactiveHttpOutputMessage message, Map<String, Object> hints) {
+        return Mono.from(inputStream)
+                .flatMap(fileContent -> {
+                    if (message.getHeaders().getContentType() == null && fileContent.getContentType() != null) {
+                        message.getHeaders().setContentType(MediaType.parseMediaType(fileContent.getContentType()));
+                    }
+                    Mono<Void> write = fileContent.getPath() != null && message instanceof ZeroCopyHttpOutputMessage zeroCopyMessage
+                            ? zeroCopyMessage.writeWith(fileContent.getPath(), fileContent.getPosition(), fileContent.getContentLength())
+                            : message.writeWith(fileContent.getContent());
+                    return fileContent.getOnRelease() != null
+                            ? write.doFinally(signal -> fileContent.getOnRelease().run())
+                            : write;
+                });
+    }
+}
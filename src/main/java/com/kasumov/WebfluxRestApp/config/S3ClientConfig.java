@@ -0,0 +1,107 @@
+package com.kasumov.WebfluxRestApp.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ReactorResourceFactory;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3", matchIfMissing = true)
+public class S3ClientConfig {
+
+    private static final Region AWS_S3_REGION_EU_CENTRAL_1 = Region.EU_CENTRAL_1;
+
+    @Value("${app.s3.aws-access-key-id}")
+    private String awsAccessKeyId;
+
+    @Value("${app.s3.aws-secret-access-key}")
+    private String awsSecretAccessKey;
+
+    @Value("${app.s3.client.event-loop.shared}")
+    private boolean sharedEventLoop;
+
+    @Value("${app.s3.client.event-loop.threads}")
+    private int eventLoopThreads;
+
+    @Value("${app.s3.client.max-concurrency}")
+    private int maxConcurrency;
+
+    @Value("${app.s3.client.max-pending-connection-acquires}")
+    private int maxPendingConnectionAcquires;
+
+    @Value("${app.s3.client.connection-acquisition-timeout}")
+    private Duration connectionAcquisitionTimeout;
+
+    @Value("${app.s3.client.connection-timeout}")
+    private Duration connectionTimeout;
+
+    @Value("${app.s3.client.read-timeout}")
+    private Duration readTimeout;
+
+    @Value("${app.s3.client.write-timeout}")
+    private Duration writeTimeout;
+
+    @Value("${app.s3.client.connection-max-idle-time}")
+    private Duration connectionMaxIdleTime;
+
+    @Bean
+    public AwsCredentialsProvider s3CredentialsProvider() {
+        return StaticCredentialsProvider.create(AwsBasicCredentials.create(awsAccessKeyId, awsSecretAccessKey));
+    }
+
+    @Bean(destroyMethod = "close")
+    public SdkAsyncHttpClient s3HttpClient(ReactorResourceFactory reactorResourceFactory) {
+        SdkEventLoopGroup eventLoopGroup = sharedEventLoop
+                ? SdkEventLoopGroup.create(reactorResourceFactory.getLoopResources().onClient(true))
+                : SdkEventLoopGroup.builder().numberOfThreads(eventLoopThreads).build();
+        log.info("S3_CLIENT_EVENT_LOOP: {} (max-concurrency {})", sharedEventLoop ? "shared" : "dedicated", maxConcurrency);
+        return NettyNioAsyncHttpClient.builder()
+                .eventLoopGroup(eventLoopGroup)
+                .maxConcurrency(maxConcurrency)
+                .maxPendingConnectionAcquires(maxPendingConnectionAcquires)
+                .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                .connectionTimeout(connectionTimeout)
+                .readTimeout(readTimeout)
+                .writeTimeout(writeTimeout)
+                .connectionMaxIdleTime(connectionMaxIdleTime)
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public S3AsyncClient s3AsyncClient(SdkAsyncHttpClient s3HttpClient, AwsCredentialsProvider s3CredentialsProvider,
+                                       MeterRegistry meterRegistry) {
+        return S3AsyncClient.builder()
+                .credentialsProvider(s3CredentialsProvider)
+                .region(AWS_S3_REGION_EU_CENTRAL_1)
+                .httpClient(s3HttpClient)
+                .asyncConfiguration(configuration -> configuration
+                        .advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR, Runnable::run))
+                .overrideConfiguration(configuration -> configuration
+                        .addMetricPublisher(new S3ClientMetricPublisher(meterRegistry)))
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public S3Presigner s3Presigner(AwsCredentialsProvider s3CredentialsProvider) {
+        return S3Presigner.builder()
+                .credentialsProvider(s3CredentialsProvider)
+                .region(AWS_S3_REGION_EU_CENTRAL_1)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.kasumov.WebfluxRestApp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class S3ClientMetricPublisher implements MetricPublisher {
+
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger available = new AtomicInteger();
+    private final AtomicInteger max = new AtomicInteger();
+    private final Timer acquireTimer;
+    private final Counter saturated;
+
+    S3ClientMetricPublisher(MeterRegistry meterRegistry) {
+        Gauge.builder("s3.client.pool.leased", leased, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("s3.client.pool.pending", pending, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("s3.client.pool.available", available, AtomicInteger::get).register(meterRegistry);
+        Gauge.builder("s3.client.pool.max", max, AtomicInteger::get).register(meterRegistry);
+        this.acquireTimer = Timer.builder("s3.client.pool.acquire")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.saturated = meterRegistry.counter("s3.client.pool.saturated");
+    }
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        record(metricCollection);
+    }
+
+    private void record(MetricCollection metricCollection) {
+        Integer leasedValue = last(metricCollection, HttpMetric.LEASED_CONCURRENCY);
+        if (leasedValue != null) {
+            leased.set(leasedValue);
+            Integer pendingValue = last(metricCollection, HttpMetric.PENDING_CONCURRENCY_ACQUIRES);
+            Integer availableValue = last(metricCollection, HttpMetric.AVAILABLE_CONCURRENCY);
+            Integer maxValue = last(metricCollection, HttpMetric.MAX_CONCURRENCY);
+            Duration acquireDuration = last(metricCollection, HttpMetric.CONCURRENCY_ACQUIRE_DURATION);
+            if (pendingValue != null) {
+                pending.set(pendingValue);
+            }
+            if (availableValue != null) {
+                available.set(availableValue);
+            }
+            if (maxValue != null) {
+                max.set(maxValue);
+            }
+            if (acquireDuration != null) {
+                acquireTimer.record(acquireDuration);
+            }
+            if ((pendingValue != null && pendingValue > 0) || (maxValue != null && leasedValue >= maxValue)) {
+                saturated.increment();
+            }
+        }
+        metricCollection.children().forEach(this::record);
+    }
+
+    private static <T> T last(MetricCollection metricCollection, SdkMetric<T> metric) {
+        List<T> values = metricCollection.metricValues(metric);
+        return values.isEmpty() ? null : values.get(values.size() - 1);
+    }
+
+    @Override
+    public void close() {
+    }
+}
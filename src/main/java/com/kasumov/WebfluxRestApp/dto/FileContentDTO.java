@@ -0,0 +1,24 @@
+package com.kasumov.WebfluxRestApp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import org.springframework.core.io.buffer.DataBuffer;
+import reactor.core.publisher.Flux;
+
+import java.nio.file.Path;
+
+@Data
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class FileContentDTO {
+
+    private Long contentLength;
+    private String contentRange;
+    private String contentType;
+    private String eTag;
+    private Flux<DataBuffer> content;
+    private Path path;
+    private Long position;
+    private Runnable onRelease;
+}
@@ -0,0 +1,22 @@
+package com.kasumov.WebfluxRestApp.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class PresignedUploadRequestDTO {
+
+    private String fileName;
+    private String checksum;
+    private Long size;
+    private String contentType;
+    private String uploadKey;
+}
@@ -0,0 +1,23 @@
+package com.kasumov.WebfluxRestApp.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class PresignedUrlDTO {
+
+    private String url;
+    private String method;
+    private Map<String, String> headers;
+    private Instant expiresAt;
+    private String uploadKey;
+}
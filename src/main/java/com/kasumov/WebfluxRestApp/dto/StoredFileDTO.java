@@ -0,0 +1,18 @@
+package com.kasumov.WebfluxRestApp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class StoredFileDTO {
+
+    private String key;
+    private String location;
+    private String checksum;
+    private Long size;
+    private String eTag;
+    private boolean deduplicated;
+}
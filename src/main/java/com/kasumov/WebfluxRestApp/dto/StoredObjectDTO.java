@@ -0,0 +1,17 @@
+package com.kasumov.WebfluxRestApp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class StoredObjectDTO {
+
+    private String key;
+    private Long size;
+    private Instant lastModified;
+}
@@ -0,0 +1,31 @@
+package com.kasumov.WebfluxRestApp.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class UploadSessionDTO {
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long id;
+
+    private String fileName;
+    private String contentType;
+    private String checksum;
+    private Long size;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long partSize;
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long committedOffset;
+}
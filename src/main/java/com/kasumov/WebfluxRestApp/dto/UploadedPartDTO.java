@@ -0,0 +1,16 @@
+package com.kasumov.WebfluxRestApp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@Builder
+public class UploadedPartDTO {
+
+    private int partNumber;
+    private String eTag;
+    private long size;
+    private byte[] digestState;
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.web.reactive.error.DefaultErrorAttributes;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.*;
 import java.util.function.BiConsumer;
@@ -52,6 +53,10 @@ public class AppErrorAttributes extends DefaultErrorAttributes {
 
         if (error instanceof SecurityException.ApiException apiException) {
             addError.accept(apiException.getErrorCode(), error.getMessage());
+        } else if (error instanceof ResponseStatusException responseStatusException) {
+            status = HttpStatus.valueOf(responseStatusException.getStatusCode().value());
+            String message = (responseStatusException.getReason() != null) ? responseStatusException.getReason() : status.getReasonPhrase();
+            addError.accept(status.name(), message);
         } else {
             String message = (error.getMessage() != null) ? error.getMessage() : error.getClass().getSimpleName();
             addError.accept("INTERNAL_ERROR", message);
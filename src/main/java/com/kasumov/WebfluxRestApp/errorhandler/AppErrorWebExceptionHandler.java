@@ -14,6 +14,7 @@ import org.springframework.web.reactive.function.server.RequestPredicates;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.RouterFunctions;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Map;
 
@@ -32,6 +33,11 @@ public class AppErrorWebExceptionHandler extends AbstractErrorWebExceptionHandle
             var props = getErrorAttributes(request, ErrorAttributeOptions.defaults());
 
             return ServerResponse.status(getHttpStatus(props))
+                    .headers(headers -> {
+                        if (errorAttributes.getError(request) instanceof ResponseStatusException responseStatusException) {
+                            headers.addAll(responseStatusException.getHeaders());
+                        }
+                    })
                     .contentType(MediaType.APPLICATION_JSON)
                     .body(BodyInserters.fromValue(props.get("errors")));
         });
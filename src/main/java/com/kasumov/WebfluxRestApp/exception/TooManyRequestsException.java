@@ -0,0 +1,14 @@
+package com.kasumov.WebfluxRestApp.exception;
+
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+
+public class TooManyRequestsException extends RetryAfterException {
+
+    private static final long serialVersionUID = 1L;
+
+    public TooManyRequestsException(String reason, Duration retryAfter) {
+        super(HttpStatus.TOO_MANY_REQUESTS, reason, retryAfter);
+    }
+}
@@ -16,6 +16,7 @@ public interface EventMapper {
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "status", ignore = true)
     @Mapping(target = "file.status", ignore = true)
+    @Mapping(target = "file.eTag", source = "file.ETag")
     Event map(EventDTO eventDTO);
 
     @Mapping(source = "event.id", target = "id")
@@ -2,8 +2,11 @@ package com.kasumov.WebfluxRestApp.model;
 
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
+import java.time.LocalDateTime;
+
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -12,5 +15,19 @@ import org.springframework.data.relational.core.mapping.Table;
 @Table(name = "file")
 public class File extends BaseEntity {
 
+    private String fileName;
     private String location;
+    private String objectKey;
+    private Long size;
+    private Long storedSize;
+    private StorageCodec codec;
+    private String contentType;
+    private String checksum;
+
+    @Column("etag")
+    private String eTag;
+
+    private LocalDateTime lastAccessedAt;
+    private Long accessCount;
+    private String storageClass;
 }
@@ -0,0 +1,22 @@
+package com.kasumov.WebfluxRestApp.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Table(name = "reconciler_checkpoint")
+public class ReconcilerCheckpoint {
+
+    @Id
+    private String name;
+    private String cursorValue;
+    private String leaseOwner;
+    private LocalDateTime leaseUntil;
+    private LocalDateTime updatedAt;
+}
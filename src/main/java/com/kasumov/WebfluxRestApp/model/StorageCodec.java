@@ -0,0 +1,17 @@
+package com.kasumov.WebfluxRestApp.model;
+
+public enum StorageCodec {
+    NONE(null),
+    GZIP("gzip"),
+    ZSTD("zstd");
+
+    private final String contentEncoding;
+
+    StorageCodec(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+}
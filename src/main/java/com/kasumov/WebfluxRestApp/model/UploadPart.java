@@ -0,0 +1,24 @@
+package com.kasumov.WebfluxRestApp.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+@Table(name = "upload_part")
+public class UploadPart {
+
+    @Id
+    private Long id;
+    private Long sessionId;
+    private Integer partNumber;
+
+    @Column("etag")
+    private String eTag;
+
+    private Long size;
+}
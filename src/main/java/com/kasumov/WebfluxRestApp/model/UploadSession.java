@@ -0,0 +1,29 @@
+package com.kasumov.WebfluxRestApp.model;
+
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder(toBuilder = true)
+@Table(name = "upload_session")
+public class UploadSession extends BaseEntity {
+
+    private Long userId;
+    private String fileName;
+    private String contentType;
+    private String checksum;
+    private Long totalSize;
+    private Long partSize;
+    private String uploadKey;
+    private String uploadId;
+    private Long committedOffset;
+    private String storedKey;
+    private byte[] digestState;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,357 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
+import com.kasumov.WebfluxRestApp.dto.PresignedUrlDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredFileDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredObjectDTO;
+import com.kasumov.WebfluxRestApp.dto.UploadedPartDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.io.IOException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "app.storage.cache.enabled", havingValue = "true")
+public class CachingFileStorageRepository implements FileStorageRepository {
+
+    public enum EvictionPolicy {
+        LRU,
+        LFU
+    }
+
+    @Value("${app.storage.cache.directory}")
+    private String cacheDirectory;
+
+    @Value("${app.storage.cache.max-size}")
+    private DataSize maxSize;
+
+    @Value("${app.storage.cache.max-entry-size}")
+    private DataSize maxEntrySize;
+
+    @Value("${app.storage.cache.eviction-policy}")
+    private EvictionPolicy evictionPolicy;
+
+    @Value("${app.storage.cache.revalidate-after}")
+    private Duration revalidateAfter;
+
+    private static final String CACHE_FILE_SUFFIX = ".tmp";
+
+    private final FileStorageRepository delegate;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedBytes;
+
+    private Path directory;
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    public CachingFileStorageRepository(@Qualifier(FileStorageRepository.BACKEND) FileStorageRepository delegate,
+                                        MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    private void init() throws IOException {
+        directory = Paths.get(cacheDirectory);
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> staleFiles = Files.newDirectoryStream(directory, "*" + CACHE_FILE_SUFFIX)) {
+            staleFiles.forEach(this::deleteQuietly);
+        }
+
+        hits = meterRegistry.counter("file.cache.hits");
+        misses = meterRegistry.counter("file.cache.misses");
+        evictions = meterRegistry.counter("file.cache.evictions");
+        Gauge.builder("file.cache.size", this, CachingFileStorageRepository::getCachedBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("file.cache.entries", this, CachingFileStorageRepository::getEntryCount)
+                .register(meterRegistry);
+        log.info("FILE_CACHE_ENABLED: {} ({}, {})", directory, maxSize, evictionPolicy);
+    }
+
+    @Override
+    public Mono<StoredFileDTO> uploadUserFileToStorage(Flux<DataBuffer> content) {
+        return delegate.uploadUserFileToStorage(content);
+    }
+
+    @Override
+    public Mono<FileContentDTO> getFileMetadata(String key) {
+        return delegate.getFileMetadata(key);
+    }
+
+    @Override
+    public Mono<StoredFileDTO> findStoredFile(String key) {
+        return delegate.findStoredFile(key);
+    }
+
+    @Override
+    public Flux<StoredObjectDTO> listStoredObjects(String startAfter, int limit) {
+        return delegate.listStoredObjects(startAfter, limit);
+    }
+
+    @Override
+    public Mono<Void> deleteStoredObject(String key) {
+        return delegate.deleteStoredObject(key)
+                .doOnSuccess(unused -> invalidate(key));
+    }
+
+    @Override
+    public Mono<String> changeStorageClass(String key, String storageClass) {
+        return delegate.changeStorageClass(key, storageClass);
+    }
+
+    @Override
+    public Mono<PresignedUrlDTO> presignUpload(String uploadKey, String checksum, long size, String contentType) {
+        return delegate.presignUpload(uploadKey, checksum, size, contentType);
+    }
+
+    @Override
+    public Mono<StoredFileDTO> completePresignedUpload(String uploadKey, String checksum, long size) {
+        return delegate.completePresignedUpload(uploadKey, checksum, size);
+    }
+
+    @Override
+    public Mono<PresignedUrlDTO> presignDownload(String key, String fileName, String contentType, String contentEncoding) {
+        return delegate.presignDownload(key, fileName, contentType, contentEncoding);
+    }
+
+    @Override
+    public Mono<String> createResumableUpload(String uploadKey) {
+        return delegate.createResumableUpload(uploadKey);
+    }
+
+    @Override
+    public Flux<UploadedPartDTO> uploadResumableParts(String uploadKey, String uploadId, int firstPartNumber,
+                                                      long partSize, long remaining, byte[] digestState,
+                                                      Flux<DataBuffer> content) {
+        return delegate.uploadResumableParts(uploadKey, uploadId, firstPartNumber, partSize, remaining, digestState, content);
+    }
+
+    @Override
+    public Mono<StoredFileDTO> completeResumableUpload(String uploadKey, String uploadId, List<UploadedPartDTO> parts,
+                                                       byte[] digestState) {
+        return delegate.completeResumableUpload(uploadKey, uploadId, parts, digestState);
+    }
+
+    @Override
+    public Mono<Void> abortResumableUpload(String uploadKey, String uploadId) {
+        return delegate.abortResumableUpload(uploadKey, uploadId);
+    }
+
+    @Override
+    public Mono<FileContentDTO> downloadFileFromStorage(String key, HttpRange range, String ifRange) {
+        CacheEntry entry = lookup(key);
+        if (entry == null) {
+            misses.increment();
+            return fetch(key, range, ifRange);
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable releaseReader = () -> {
+            if (released.compareAndSet(false, true)) {
+                release(entry);
+            }
+        };
+        return isFresh(key, entry)
+                .flatMap(fresh -> {
+                    if (!fresh) {
+                        releaseReader.run();
+                        invalidate(key);
+                        misses.increment();
+                        return fetch(key, range, ifRange);
+                    }
+                    hits.increment();
+                    return Mono.fromCallable(() -> serveFromDisk(entry, range, ifRange, releaseReader));
+                })
+                .doOnError(error -> releaseReader.run())
+                .doOnCancel(releaseReader);
+    }
+
+    private Mono<Boolean> isFresh(String key, CacheEntry entry) {
+        if (System.nanoTime() - entry.validatedAt < revalidateAfter.toNanos()) {
+            return Mono.just(true);
+        }
+        return delegate.getFileMetadata(key)
+                .map(metadata -> {
+                    boolean fresh = entry.eTag.equals(metadata.getETag());
+                    if (fresh) {
+                        entry.validatedAt = System.nanoTime();
+                    }
+                    return fresh;
+                })
+                .doOnError(error -> invalidate(key));
+    }
+
+    private FileContentDTO serveFromDisk(CacheEntry entry, HttpRange range, String ifRange, Runnable releaseReader) {
+        FileContentDTO fileContent = LocalFileContent.read(entry.path, entry.size, entry.eTag, entry.contentType, range, ifRange);
+        return fileContent.toBuilder()
+                .path(null)
+                .position(null)
+                .content(fileContent.getContent().doFinally(signal -> releaseReader.run()))
+                .build();
+    }
+
+    private Mono<FileContentDTO> fetch(String key, HttpRange range, String ifRange) {
+        if (range != null) {
+            return delegate.downloadFileFromStorage(key, range, ifRange);
+        }
+        return delegate.downloadFileFromStorage(key, null, null)
+                .map(fileContent -> {
+                    if (fileContent.getContentLength() > maxEntrySize.toBytes()) {
+                        return fileContent;
+                    }
+                    return fileContent.toBuilder()
+                            .path(null)
+                            .position(null)
+                            .content(writeThrough(key, fileContent))
+                            .build();
+                });
+    }
+
+    private Flux<DataBuffer> writeThrough(String key, FileContentDTO fileContent) {
+        Path tempFile = directory.resolve(UUID.randomUUID() + CACHE_FILE_SUFFIX);
+        return Flux.using(
+                        () -> AsynchronousFileChannel.open(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                        channel -> DataBufferUtils.write(fileContent.getContent(), channel),
+                        this::closeQuietly)
+                .doOnComplete(() -> store(key, fileContent, tempFile))
+                .doFinally(signal -> {
+                    if (signal != SignalType.ON_COMPLETE) {
+                        deleteQuietly(tempFile);
+                    }
+                });
+    }
+
+    private synchronized CacheEntry lookup(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry != null) {
+            entry.hits++;
+            entry.readers.incrementAndGet();
+        }
+        return entry;
+    }
+
+    private synchronized void store(String key, FileContentDTO fileContent, Path file) {
+        CacheEntry previous = entries.remove(key);
+        if (previous != null) {
+            discard(previous);
+        }
+        CacheEntry entry = new CacheEntry(file, fileContent.getContentLength(),
+                fileContent.getETag(), fileContent.getContentType());
+        entries.put(key, entry);
+        cachedBytes += entry.size;
+
+        while (cachedBytes > maxSize.toBytes() && entries.size() > 1) {
+            String victim = selectVictim();
+            discard(entries.remove(victim));
+            evictions.increment();
+            log.info("EVICTED_FROM_FILE_CACHE: {}", victim);
+        }
+    }
+
+    private String selectVictim() {
+        Iterator<Map.Entry<String, CacheEntry>> iterator = entries.entrySet().iterator();
+        Map.Entry<String, CacheEntry> victim = iterator.next();
+        if (evictionPolicy == EvictionPolicy.LFU) {
+            while (iterator.hasNext()) {
+                Map.Entry<String, CacheEntry> candidate = iterator.next();
+                if (candidate.getValue().hits < victim.getValue().hits) {
+                    victim = candidate;
+                }
+            }
+        }
+        return victim.getKey();
+    }
+
+    private synchronized void invalidate(String key) {
+        CacheEntry entry = entries.remove(key);
+        if (entry != null) {
+            discard(entry);
+        }
+    }
+
+    private void discard(CacheEntry entry) {
+        cachedBytes -= entry.size;
+        entry.removed = true;
+        if (entry.readers.get() == 0) {
+            deleteQuietly(entry.path);
+        }
+    }
+
+    private synchronized void release(CacheEntry entry) {
+        if (entry.readers.decrementAndGet() == 0 && entry.removed) {
+            deleteQuietly(entry.path);
+        }
+    }
+
+    private synchronized long getCachedBytes() {
+        return cachedBytes;
+    }
+
+    private synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    private void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("ERROR_CLOSING_CACHE_FILE: {}", e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("ERROR_DELETING_CACHE_FILE: {}", file, e);
+        }
+    }
+
+    private static class CacheEntry {
+        private final Path path;
+        private final long size;
+        private final String eTag;
+        private final String contentType;
+        private final AtomicInteger readers = new AtomicInteger();
+        private volatile long validatedAt = System.nanoTime();
+        private long hits;
+        private boolean removed;
+
+        private CacheEntry(Path path, long size, String eTag, String contentType) {
+            this.path = path;
+            this.size = size;
+            this.eTag = eTag;
+            this.contentType = contentType;
+        }
+    }
+}
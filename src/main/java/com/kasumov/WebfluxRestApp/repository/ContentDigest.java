@@ -0,0 +1,55 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import org.springframework.core.io.buffer.DataBuffer;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+final class ContentDigest {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private final MessageDigest digest;
+    private long size;
+    private String hex;
+
+    ContentDigest() {
+        try {
+            this.digest = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    void update(DataBuffer dataBuffer) {
+        size += dataBuffer.readableByteCount();
+        try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+            while (iterator.hasNext()) {
+                digest.update(iterator.next());
+            }
+        }
+    }
+
+    void update(ByteBuffer byteBuffer) {
+        size += byteBuffer.remaining();
+        digest.update(byteBuffer);
+    }
+
+    void update(byte[] bytes) {
+        size += bytes.length;
+        digest.update(bytes);
+    }
+
+    long size() {
+        return size;
+    }
+
+    String hex() {
+        if (hex == null) {
+            hex = HexFormat.of().formatHex(digest.digest());
+        }
+        return hex;
+    }
+}
@@ -1,20 +1,33 @@
 package com.kasumov.WebfluxRestApp.repository;
 
 import com.kasumov.WebfluxRestApp.model.Event;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface EventRepository extends R2dbcRepository<Event, Long> {
+import java.util.Collection;
+
+public interface EventRepository extends R2dbcRepository<Event, Long>, EventWithFileRepository {
 
     Mono<Event> findActiveById(Long id);
 
     Flux<Event> findAllActive();
 
+    @Query("SELECT * FROM event WHERE user_id = :userId AND status = 'ACTIVE' ORDER BY id")
     Flux<Event> findAllActiveByUserId(Long userId);
 
+    @Query("SELECT * FROM event WHERE file_id = :fileId AND user_id = :userId AND status = 'ACTIVE'")
     Mono<Event> findActiveByFileIdAndUserId(Long fileId, Long userId);
 
+    @Query("SELECT DISTINCT file_id FROM event WHERE user_id = :userId AND file_id IN (:fileIds) AND status = 'ACTIVE'")
+    Flux<Long> findActiveFileIdsByUserIdAndFileIdIn(Long userId, Collection<Long> fileIds);
+
+    @Query("SELECT e.* FROM event e JOIN file f ON f.id = e.file_id " +
+            "WHERE f.file_name = :fileName AND e.user_id = :userId AND e.status = 'ACTIVE' AND f.status = 'ACTIVE' " +
+            "ORDER BY e.id DESC LIMIT 1")
+    Mono<Event> findActiveByFileNameAndUserId(String fileName, Long userId);
+
     Mono<Void> deleteActiveById(Long id);
 
     Mono<Integer> deleteAllActive();
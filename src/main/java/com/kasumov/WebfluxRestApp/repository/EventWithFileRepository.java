@@ -0,0 +1,11 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.model.Event;
+import reactor.core.publisher.Flux;
+
+public interface EventWithFileRepository {
+
+    Flux<Event> findActivePageWithFile(long cursor, int limit);
+
+    Flux<Event> findActivePageWithFileByUserId(Long userId, long cursor, int limit);
+}
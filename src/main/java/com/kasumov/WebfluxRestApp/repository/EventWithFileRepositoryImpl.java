@@ -0,0 +1,76 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.model.Event;
+import com.kasumov.WebfluxRestApp.model.File;
+import com.kasumov.WebfluxRestApp.model.Status;
+import com.kasumov.WebfluxRestApp.model.StorageCodec;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+class EventWithFileRepositoryImpl implements EventWithFileRepository {
+
+    private static final String SELECT_ACTIVE_WITH_FILE = "SELECT " +
+            "e.id AS e_id, e.user_id AS e_user_id, e.file_id AS e_file_id, e.status AS e_status, " +
+            "f.id AS f_id, f.file_name AS f_file_name, f.location AS f_location, f.object_key AS f_object_key, " +
+            "f.size AS f_size, " +
+            "f.stored_size AS f_stored_size, f.codec AS f_codec, f.content_type AS f_content_type, " +
+            "f.checksum AS f_checksum, f.etag AS f_etag, f.last_accessed_at AS f_last_accessed_at, " +
+            "f.access_count AS f_access_count, f.storage_class AS f_storage_class, f.status AS f_status " +
+            "FROM event e JOIN file f ON f.id = e.file_id " +
+            "WHERE e.status = 'ACTIVE' AND f.status = 'ACTIVE'";
+
+    private final DatabaseClient databaseClient;
+
+    EventWithFileRepositoryImpl(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<Event> findActivePageWithFile(long cursor, int limit) {
+        return databaseClient.sql(SELECT_ACTIVE_WITH_FILE + " AND e.id > :cursor ORDER BY e.id LIMIT :limit")
+                .bind("cursor", cursor)
+                .bind("limit", limit)
+                .map(EventWithFileRepositoryImpl::mapRow)
+                .all();
+    }
+
+    @Override
+    public Flux<Event> findActivePageWithFileByUserId(Long userId, long cursor, int limit) {
+        return databaseClient.sql(SELECT_ACTIVE_WITH_FILE + " AND e.user_id = :userId AND e.id > :cursor " +
+                        "ORDER BY e.id LIMIT :limit")
+                .bind("userId", userId)
+                .bind("cursor", cursor)
+                .bind("limit", limit)
+                .map(EventWithFileRepositoryImpl::mapRow)
+                .all();
+    }
+
+    private static Event mapRow(Readable row) {
+        File file = File.builder()
+                .id(row.get("f_id", Long.class))
+                .fileName(row.get("f_file_name", String.class))
+                .location(row.get("f_location", String.class))
+                .objectKey(row.get("f_object_key", String.class))
+                .size(row.get("f_size", Long.class))
+                .storedSize(row.get("f_stored_size", Long.class))
+                .codec(StorageCodec.valueOf(row.get("f_codec", String.class)))
+                .contentType(row.get("f_content_type", String.class))
+                .checksum(row.get("f_checksum", String.class))
+                .eTag(row.get("f_etag", String.class))
+                .lastAccessedAt(row.get("f_last_accessed_at", LocalDateTime.class))
+                .accessCount(row.get("f_access_count", Long.class))
+                .storageClass(row.get("f_storage_class", String.class))
+                .status(Status.valueOf(row.get("f_status", String.class)))
+                .build();
+        return Event.builder()
+                .id(row.get("e_id", Long.class))
+                .userId(row.get("e_user_id", Long.class))
+                .fileId(row.get("e_file_id", Long.class))
+                .status(Status.valueOf(row.get("e_status", String.class)))
+                .file(file)
+                .build();
+    }
+}
@@ -1,10 +1,15 @@
 package com.kasumov.WebfluxRestApp.repository;
 
 import com.kasumov.WebfluxRestApp.model.File;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+
 public interface FileRepository extends R2dbcRepository<File, Long> {
 
     Mono<File> findActiveById(Long id);
@@ -13,7 +18,46 @@ public interface FileRepository extends R2dbcRepository<File, Long> {
 
     Flux<File> findAllActiveByUserId(Long userId);
 
-    Mono<Long> getIdByFileName(String fileName);
+    @Query("SELECT * FROM file WHERE id > :cursor AND status = 'ACTIVE' ORDER BY id LIMIT :limit")
+    Flux<File> findActivePage(long cursor, int limit);
+
+    @Query("SELECT f.* FROM file f JOIN event e ON e.file_id = f.id " +
+            "WHERE e.user_id = :userId AND f.id > :cursor AND e.status = 'ACTIVE' AND f.status = 'ACTIVE' " +
+            "ORDER BY f.id LIMIT :limit")
+    Flux<File> findActivePageByUserId(Long userId, long cursor, int limit);
+
+    @Query("SELECT * FROM file WHERE id IN (:ids) AND status = 'ACTIVE'")
+    Flux<File> findAllActiveByIdIn(Collection<Long> ids);
+
+    @Query("SELECT * FROM file WHERE file_name = :fileName AND status = 'ACTIVE' ORDER BY id DESC LIMIT 1")
+    Mono<File> findLatestActiveByFileName(String fileName);
+
+    @Query("SELECT f.* FROM file f JOIN event e ON e.file_id = f.id " +
+            "WHERE f.file_name = :fileName AND f.status = 'ACTIVE' AND e.user_id = :userId AND e.status = 'ACTIVE' " +
+            "ORDER BY f.id DESC LIMIT 1")
+    Mono<File> findLatestActiveByFileNameAndUserId(String fileName, Long userId);
+
+    @Query("SELECT * FROM file WHERE id > :afterId AND status = 'ACTIVE' AND checksum IS NOT NULL ORDER BY id LIMIT :limit")
+    Flux<File> findActiveStoredAfterId(Long afterId, int limit);
+
+    @Query("SELECT DISTINCT checksum FROM file WHERE checksum IN (:checksums) AND status = 'ACTIVE'")
+    Flux<String> findActiveChecksumsIn(Collection<String> checksums);
+
+    @Query("SELECT checksum FROM file " +
+            "WHERE storage_class = :storageClass AND checksum > :afterChecksum AND status = 'ACTIVE' " +
+            "GROUP BY checksum " +
+            "HAVING MAX(last_accessed_at) < :accessedBefore AND MAX(stored_size) >= :minSize " +
+            "ORDER BY checksum LIMIT :limit")
+    Flux<String> findColdChecksums(String storageClass, String afterChecksum, LocalDateTime accessedBefore,
+                                   long minSize, int limit);
+
+    @Modifying
+    @Query("UPDATE file SET storage_class = :storageClass, etag = :eTag WHERE checksum = :checksum")
+    Mono<Integer> updateStorageClassByChecksum(String checksum, String storageClass, String eTag);
+
+    @Modifying
+    @Query("UPDATE file SET status = 'DELETED' WHERE id = :id AND status = 'ACTIVE'")
+    Mono<Integer> markDeletedById(Long id);
 
     Mono<Void> deleteActiveById(Long id);
 
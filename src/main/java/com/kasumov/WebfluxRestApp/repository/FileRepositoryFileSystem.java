@@ -0,0 +1,195 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredFileDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredObjectDTO;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@Qualifier(FileStorageRepository.BACKEND)
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "filesystem")
+public class FileRepositoryFileSystem implements FileStorageRepository {
+
+    private static final String TEMP_FILE_SUFFIX = ".upload";
+    private static final Pattern CONTENT_KEY = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${app.storage.filesystem.root}")
+    private String rootDirectory;
+
+    private Path root;
+
+    @PostConstruct
+    private void init() throws IOException {
+        root = Paths.get(rootDirectory).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        log.info("FILESYSTEM_STORAGE_ROOT: {}", root);
+    }
+
+    @Override
+    public Mono<StoredFileDTO> uploadUserFileToStorage(Flux<DataBuffer> content) {
+        Path tempFile = root.resolve(UUID.randomUUID() + TEMP_FILE_SUFFIX);
+
+        return Mono.defer(() -> {
+                    ContentDigest digest = new ContentDigest();
+                    return DataBufferUtils.write(content.doOnNext(digest::update), tempFile,
+                                    StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+                            .then(Mono.fromCallable(() -> store(tempFile, digest))
+                                    .subscribeOn(Schedulers.boundedElastic()));
+                })
+                .doOnSuccess(storedFile -> log.info("UPLOADED_SUCCESSFULLY_TO_FILESYSTEM: {}", storedFile.getKey()))
+                .doOnError(error -> {
+                    log.error("ERROR_UPLOADING_TO_FILESYSTEM: {}", error.getMessage());
+                    deleteQuietly(tempFile);
+                });
+    }
+
+    private StoredFileDTO store(Path tempFile, ContentDigest digest) throws IOException {
+        String key = digest.hex();
+        Path target = root.resolve(key);
+        boolean deduplicated = Files.exists(target);
+        if (deduplicated) {
+            Files.delete(tempFile);
+            log.info("DEDUPLICATED_UPLOAD: {}", key);
+        } else {
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return StoredFileDTO.builder()
+                .key(key)
+                .location(target.toUri().toString())
+                .checksum(key)
+                .size(digest.size())
+                .eTag(contentETag(key))
+                .deduplicated(deduplicated)
+                .build();
+    }
+
+    @Override
+    public Mono<FileContentDTO> downloadFileFromStorage(String key, HttpRange range, String ifRange) {
+        Path file = resolve(key);
+        return readAttributes(file)
+                .map(attributes -> LocalFileContent.read(file, attributes.size(), eTag(key, attributes),
+                        MediaType.APPLICATION_OCTET_STREAM_VALUE, range, ifRange))
+                .doOnSuccess(fileContent -> log.info("DOWNLOADING_FROM_FILESYSTEM: {}", key))
+                .doOnError(error -> log.error("ERROR_DOWNLOADING_FROM_FILESYSTEM: {}", key, error));
+    }
+
+    @Override
+    public Mono<FileContentDTO> getFileMetadata(String key) {
+        return readAttributes(resolve(key))
+                .map(attributes -> FileContentDTO.builder()
+                        .contentLength(attributes.size())
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                        .eTag(eTag(key, attributes))
+                        .build());
+    }
+
+    @Override
+    public Mono<StoredFileDTO> findStoredFile(String key) {
+        Path file = resolve(key);
+        return readAttributes(file)
+                .map(attributes -> StoredFileDTO.builder()
+                        .key(key)
+                        .location(file.toUri().toString())
+                        .checksum(key)
+                        .size(attributes.size())
+                        .eTag(eTag(key, attributes))
+                        .build())
+                .onErrorResume(ResponseStatusException.class, error -> Mono.empty());
+    }
+
+    @Override
+    public Flux<StoredObjectDTO> listStoredObjects(String startAfter, int limit) {
+        return Mono.fromCallable(() -> {
+                    try (Stream<Path> files = Files.list(root)) {
+                        return files
+                                .filter(file -> !file.getFileName().toString().endsWith(TEMP_FILE_SUFFIX))
+                                .filter(file -> startAfter == null || file.getFileName().toString().compareTo(startAfter) > 0)
+                                .sorted()
+                                .limit(limit)
+                                .map(this::toStoredObject)
+                                .toList();
+                    }
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(storedObjects -> storedObjects);
+    }
+
+    @Override
+    public Mono<Void> deleteStoredObject(String key) {
+        Path file = resolve(key);
+        return Mono.fromCallable(() -> Files.deleteIfExists(file))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnSuccess(deleted -> log.info("DELETED_FROM_FILESYSTEM: {}", key))
+                .then();
+    }
+
+    private StoredObjectDTO toStoredObject(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return StoredObjectDTO.builder()
+                    .key(file.getFileName().toString())
+                    .size(attributes.size())
+                    .lastModified(attributes.lastModifiedTime().toInstant())
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Mono<BasicFileAttributes> readAttributes(Path file) {
+        return Mono.fromCallable(() -> Files.readAttributes(file, BasicFileAttributes.class))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorMap(NoSuchFileException.class, error -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (!root.equals(file.getParent())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, key);
+        }
+        return file;
+    }
+
+    private static String eTag(String key, BasicFileAttributes attributes) {
+        if (CONTENT_KEY.matcher(key).matches()) {
+            return contentETag(key);
+        }
+        return "\"" + Long.toHexString(attributes.size()) + "-"
+                + Long.toHexString(attributes.lastModifiedTime().toMillis()) + "\"";
+    }
+
+    private static String contentETag(String key) {
+        return "\"" + key + "\"";
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("ERROR_DELETING_TEMP_FILE: {}", file, e);
+        }
+    }
+}
@@ -1,33 +1,80 @@
 package com.kasumov.WebfluxRestApp.repository;
 
-import com.kasumov.WebfluxRestApp.dto.FileDTO;
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
+import com.kasumov.WebfluxRestApp.dto.PresignedUrlDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredFileDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredObjectDTO;
+import com.kasumov.WebfluxRestApp.dto.UploadedPartDTO;
+import com.kasumov.WebfluxRestApp.exception.RetryAfterException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Subscription;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
-import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.presigner.PresignedRequest;
 import software.amazon.awssdk.core.async.AsyncResponseTransformer;
-import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.core.async.ResponsePublisher;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.GlacierJobParameters;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.RestoreObjectRequest;
+import software.amazon.awssdk.services.s3.model.RestoreRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.StorageClass;
+import software.amazon.awssdk.services.s3.model.Tier;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.time.LocalDateTime;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Slf4j
 @Component
+@Qualifier(FileStorageRepository.BACKEND)
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "s3", matchIfMissing = true)
 public class FileRepositoryS3 implements FileStorageRepository {
 
-    private static final Region AWS_S3_REGION_EU_CENTRAL_1 = Region.EU_CENTRAL_1;
-    private static final String TMP_DIR_PATH = "/tmp/myapp";
-    private static final String TEMP_FILE_NAME_PREFIX = "tmp-file-";
+    private static final String BYTES_RANGE_PREFIX = "bytes=";
+    private static final String WEAK_ETAG_PREFIX = "W/";
+    private static final int PRECONDITION_FAILED = 412;
+    private static final int NOT_FOUND = 404;
+    private static final int CONFLICT = 409;
+    private static final double HEDGE_PERCENTILE = 0.95;
+    private static final String INVALID_OBJECT_STATE = "InvalidObjectState";
 
     @Value("${app.s3.bucket-name}")
     private String bucketName;
@@ -35,59 +82,409 @@ public class FileRepositoryS3 implements FileStorageRepository {
     @Value("${app.s3.key-prefix}")
     private String keyPrefix;
 
-    @Value("${app.s3.aws-access-key-id}")
-    private String awsAccessKeyId;
+    @Value("${app.s3.multipart.part-size}")
+    private DataSize multipartPartSize;
+
+    @Value("${app.s3.multipart.concurrency}")
+    private int multipartConcurrency;
+
+    @Value("${app.s3.multipart.max-retries}")
+    private int multipartMaxRetries;
+
+    @Value("${app.s3.presign.ttl}")
+    private Duration presignTtl;
+
+    @Value("${app.s3.coalescing.enabled}")
+    private boolean coalescingEnabled;
+
+    @Value("${app.s3.coalescing.join-window}")
+    private Duration coalescingJoinWindow;
+
+    @Value("${app.s3.coalescing.prefetch}")
+    private int coalescingPrefetch;
+
+    @Value("${app.s3.coalescing.subscriber-buffer-size}")
+    private int coalescingSubscriberBufferSize;
+
+    @Value("${app.s3.get.deadline}")
+    private Duration getDeadline;
+
+    @Value("${app.s3.get.hedging.enabled}")
+    private boolean hedgingEnabled;
 
-    @Value("${app.s3.aws-secret-access-key}")
-    private String awsSecretAccessKey;
+    @Value("${app.s3.get.hedging.min-delay}")
+    private Duration hedgingMinDelay;
+
+    @Value("${app.s3.restore.days}")
+    private int restoreDays;
+
+    @Value("${app.s3.restore.tier}")
+    private Tier restoreTier;
+
+    @Value("${app.s3.restore.retry-after}")
+    private Duration restoreRetryAfter;
 
     private final S3AsyncClient s3Client;
+    private final S3Presigner presigner;
+    private final MeterRegistry meterRegistry;
+    private final Timer firstByteTimer;
+    private final Counter hedgesFired;
+    private final Counter hedgesWon;
+    private final Counter deadlinesExceeded;
+    private S3MultipartUploader multipartUploader;
+    private S3DownloadCoalescer downloadCoalescer;
+
+    public FileRepositoryS3(S3AsyncClient s3Client, S3Presigner presigner, MeterRegistry meterRegistry) {
+        this.s3Client = s3Client;
+        this.presigner = presigner;
+        this.meterRegistry = meterRegistry;
+        this.firstByteTimer = Timer.builder("s3.get.first-byte")
+                .publishPercentiles(HEDGE_PERCENTILE)
+                .register(meterRegistry);
+        this.hedgesFired = meterRegistry.counter("s3.get.hedges.fired");
+        this.hedgesWon = meterRegistry.counter("s3.get.hedges.won");
+        this.deadlinesExceeded = meterRegistry.counter("s3.get.deadlines.exceeded");
+    }
+
+    @PostConstruct
+    private void init() {
+        multipartUploader = new S3MultipartUploader(s3Client, bucketName, keyPrefix,
+                multipartPartSize.toBytes(), multipartConcurrency, multipartMaxRetries);
+        if (coalescingEnabled) {
+            downloadCoalescer = new S3DownloadCoalescer(this::fetch, coalescingJoinWindow, coalescingPrefetch,
+                    coalescingSubscriberBufferSize, meterRegistry.counter("file.download.coalesced"));
+        }
+    }
+
+    @Override
+    public Mono<StoredFileDTO> uploadUserFileToStorage(Flux<DataBuffer> content) {
+        return multipartUploader.upload(content)
+                .map(storedFile -> storedFile.toBuilder()
+                        .location(location(storedFile.getKey()))
+                        .build())
+                .doOnSuccess(storedFile -> log.info("UPLOADED_SUCCESSFULLY_TO_S3: {}", storedFile.getKey()))
+                .doOnError(error -> log.error("ERROR_UPLOADING_TO_S3: {}", error.getMessage()));
+    }
+
+    @Override
+    public Mono<String> createResumableUpload(String uploadKey) {
+        return multipartUploader.createUpload(uploadKey)
+                .doOnSuccess(uploadId -> log.info("CREATED_RESUMABLE_UPLOAD: {}", uploadKey));
+    }
+
+    @Override
+    public Flux<UploadedPartDTO> uploadResumableParts(String uploadKey, String uploadId, int firstPartNumber,
+                                                      long partSize, long remaining, byte[] digestState,
+                                                      Flux<DataBuffer> content) {
+        return multipartUploader.uploadParts(uploadKey, uploadId, firstPartNumber, partSize, remaining, digestState, content);
+    }
+
+    @Override
+    public Mono<StoredFileDTO> completeResumableUpload(String uploadKey, String uploadId, List<UploadedPartDTO> parts,
+                                                       byte[] digestState) {
+        return multipartUploader.completeUpload(uploadKey, uploadId, parts, digestState)
+                .map(storedFile -> storedFile.toBuilder()
+                        .location(location(storedFile.getKey()))
+                        .build())
+                .doOnSuccess(storedFile -> log.info("COMPLETED_RESUMABLE_UPLOAD: {} -> {}", uploadKey, storedFile.getKey()));
+    }
+
+    @Override
+    public Mono<Void> abortResumableUpload(String uploadKey, String uploadId) {
+        return multipartUploader.abortUpload(uploadKey, uploadId);
+    }
 
-    public FileRepositoryS3() {
-        this.s3Client = S3AsyncClient.builder()
-                .credentialsProvider(StaticCredentialsProvider.create(
-                        AwsBasicCredentials.create(this.awsAccessKeyId, this.awsSecretAccessKey)))
-                .region(AWS_S3_REGION_EU_CENTRAL_1)
+    @Override
+    public Mono<FileContentDTO> downloadFileFromStorage(String key, HttpRange range, String ifRange) {
+        return download(key, range, ifRange)
+                .onErrorResume(FileRepositoryS3::isArchived, error -> restoreObject(key)
+                        .then(Mono.error(new RetryAfterException(HttpStatus.SERVICE_UNAVAILABLE,
+                                "File is being restored from archive storage", restoreRetryAfter))));
+    }
+
+    private Mono<FileContentDTO> download(String key, HttpRange range, String ifRange) {
+        GetObjectRequest fullRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(keyPrefix + "/" + key)
                 .build();
+
+        if (range == null || (ifRange != null && ifRange.startsWith(WEAK_ETAG_PREFIX))) {
+            return getFullObject(key, fullRequest);
+        }
+
+        GetObjectRequest.Builder rangedRequest = fullRequest.toBuilder()
+                .range(BYTES_RANGE_PREFIX + range);
+        if (ifRange != null) {
+            if (ifRange.startsWith("\"")) {
+                rangedRequest.ifMatch(ifRange);
+            } else {
+                try {
+                    rangedRequest.ifUnmodifiedSince(
+                            ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+                } catch (DateTimeParseException e) {
+                    return getFullObject(key, fullRequest);
+                }
+            }
+        }
+
+        return getObject(key, rangedRequest.build())
+                .onErrorResume(error -> error instanceof S3Exception s3Exception
+                                && s3Exception.statusCode() == PRECONDITION_FAILED,
+                        error -> getFullObject(key, fullRequest));
     }
 
     @Override
-    public Mono<FileDTO> uploadUserFileToStorage(FilePart filePart) {
-        String fileName = filePart.filename();
-        Path tempFile = Paths.get(TMP_DIR_PATH, TEMP_FILE_NAME_PREFIX + fileName);
-
-        return Mono.from(filePart.transferTo(tempFile.toFile()))
-                .then(Mono.fromCompletionStage(() ->
-                        s3Client.putObject(PutObjectRequest.builder()
-                                        .bucket(bucketName)
-                                        .key(keyPrefix + "/" + fileName)
-                                        .build(),
-                                (Path) filePart.content()))
-                )
-                .doOnSuccess(response -> {
-                    log.info("UPLOADED_SUCCESSFULLY_TO_S3: {}", fileName);
-                    tempFile.toFile().delete();
-                })
-                .doOnError(error -> log.error("ERROR_UPLOADING_TO_S3: {}", error.getMessage()))
-                .thenReturn(new FileDTO(fileName, LocalDateTime.now()));
+    public Mono<String> changeStorageClass(String key, String storageClass) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.headObject(HeadObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(keyPrefix + "/" + key)
+                                .build()))
+                .flatMap(response -> multipartUploader.changeStorageClass(key, response.contentLength(),
+                        StorageClass.fromValue(storageClass)));
+    }
+
+    private Mono<Void> restoreObject(String key) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.restoreObject(RestoreObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(keyPrefix + "/" + key)
+                                .restoreRequest(RestoreRequest.builder()
+                                        .days(restoreDays)
+                                        .glacierJobParameters(GlacierJobParameters.builder()
+                                                .tier(restoreTier)
+                                                .build())
+                                        .build())
+                                .build()))
+                .doOnSuccess(response -> log.info("RESTORE_REQUESTED: {}", key))
+                .onErrorResume(error -> error instanceof S3Exception s3Exception
+                                && s3Exception.statusCode() == CONFLICT,
+                        error -> Mono.empty())
+                .then();
+    }
+
+    private static boolean isArchived(Throwable error) {
+        return error instanceof S3Exception s3Exception
+                && s3Exception.awsErrorDetails() != null
+                && INVALID_OBJECT_STATE.equals(s3Exception.awsErrorDetails().errorCode());
+    }
+
+    @Override
+    public Mono<FileContentDTO> getFileMetadata(String key) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.headObject(HeadObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(keyPrefix + "/" + key)
+                                .build()))
+                .map(response -> FileContentDTO.builder()
+                        .contentLength(response.contentLength())
+                        .contentType(response.contentType())
+                        .eTag(response.eTag())
+                        .build());
     }
 
     @Override
-    public Mono<ResponseEntity<ByteArrayResource>> downloadFileFromStorage(String fileName) {
-        String key = keyPrefix + "/" + fileName;
+    public Mono<StoredFileDTO> findStoredFile(String key) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.headObject(HeadObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(keyPrefix + "/" + key)
+                                .build()))
+                .map(response -> StoredFileDTO.builder()
+                        .key(key)
+                        .location(location(key))
+                        .checksum(key)
+                        .size(response.contentLength())
+                        .eTag(response.eTag())
+                        .build())
+                .onErrorResume(error -> error instanceof S3Exception s3Exception
+                                && s3Exception.statusCode() == NOT_FOUND,
+                        error -> Mono.empty());
+    }
+
+    @Override
+    public Flux<StoredObjectDTO> listStoredObjects(String startAfter, int limit) {
+        String prefix = keyPrefix + "/";
+        return Mono.fromCompletionStage(() ->
+                        s3Client.listObjectsV2(ListObjectsV2Request.builder()
+                                .bucket(bucketName)
+                                .prefix(prefix)
+                                .delimiter("/")
+                                .startAfter(startAfter != null ? prefix + startAfter : null)
+                                .maxKeys(limit)
+                                .build()))
+                .flatMapIterable(ListObjectsV2Response::contents)
+                .map(object -> StoredObjectDTO.builder()
+                        .key(object.key().substring(prefix.length()))
+                        .size(object.size())
+                        .lastModified(object.lastModified())
+                        .build());
+    }
 
+    @Override
+    public Mono<Void> deleteStoredObject(String key) {
         return Mono.fromCompletionStage(() ->
-                        s3Client.getObject(GetObjectRequest.builder()
-                                        .bucket(bucketName)
-                                        .key(key)
-                                        .build(),
-                                AsyncResponseTransformer.toBytes()))
-                .map(responseBytes ->
-                        ResponseEntity.ok()
-                                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                                .body(new ByteArrayResource(responseBytes.asByteArray()))
-                )
-                .doOnSuccess(response -> log.info("DOWNLOADED_SUCCESSFULLY_FROM_S3: {}", fileName))
-                .doOnError(error -> log.error("ERROR_DOWNLOADING_FROM_S3: {}", fileName, error));
+                        s3Client.deleteObject(DeleteObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(keyPrefix + "/" + key)
+                                .build()))
+                .doOnSuccess(response -> log.info("DELETED_FROM_S3: {}", key))
+                .then();
+    }
+
+    @Override
+    public Mono<PresignedUrlDTO> presignUpload(String uploadKey, String checksum, long size, String contentType) {
+        return Mono.fromCallable(() -> presigner.presignPutObject(PutObjectPresignRequest.builder()
+                        .signatureDuration(presignTtl)
+                        .putObjectRequest(PutObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(multipartUploader.stagingKey(uploadKey))
+                                .contentLength(size)
+                                .checksumSHA256(Base64.getEncoder().encodeToString(HexFormat.of().parseHex(checksum)))
+                                .build())
+                        .build()))
+                .map(FileRepositoryS3::presignedUrl)
+                .doOnSuccess(presignedUrl -> log.info("PRESIGNED_UPLOAD: {}", uploadKey));
+    }
+
+    @Override
+    public Mono<StoredFileDTO> completePresignedUpload(String uploadKey, String checksum, long size) {
+        return multipartUploader.completeStagedObject(uploadKey, checksum, size)
+                .map(storedFile -> storedFile.toBuilder()
+                        .location(location(storedFile.getKey()))
+                        .build())
+                .doOnNext(storedFile -> log.info("COMPLETED_PRESIGNED_UPLOAD: {} -> {}", uploadKey, storedFile.getKey()));
+    }
+
+    @Override
+    public Mono<PresignedUrlDTO> presignDownload(String key, String fileName, String contentType, String contentEncoding) {
+        return Mono.fromCallable(() -> presigner.presignGetObject(GetObjectPresignRequest.builder()
+                        .signatureDuration(presignTtl)
+                        .getObjectRequest(GetObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(keyPrefix + "/" + key)
+                                .responseContentType(contentType)
+                                .responseContentDisposition("attachment; filename=\"" + fileName + "\"")
+                                .responseContentEncoding(contentEncoding)
+                                .build())
+                        .build()))
+                .map(FileRepositoryS3::presignedUrl)
+                .doOnSuccess(presignedUrl -> log.info("PRESIGNED_DOWNLOAD: {}", key));
+    }
+
+    private static PresignedUrlDTO presignedUrl(PresignedRequest request) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        request.signedHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("host")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return PresignedUrlDTO.builder()
+                .url(request.url().toString())
+                .method(request.httpRequest().method().name())
+                .headers(headers)
+                .expiresAt(request.expiration())
+                .build();
+    }
+
+    private String location(String key) {
+        return String.format("https://%s.s3.amazonaws.com/%s/%s", bucketName, keyPrefix, key);
+    }
+
+    private Mono<FileContentDTO> getFullObject(String key, GetObjectRequest request) {
+        if (downloadCoalescer == null) {
+            return getObject(key, request);
+        }
+        return downloadCoalescer.get(key, request)
+                .map(objectStream -> toFileContent(key, objectStream.response(), objectStream.body()))
+                .doOnError(error -> log.error("ERROR_DOWNLOADING_FROM_S3: {}", key, error));
+    }
+
+    private Mono<FileContentDTO> getObject(String key, GetObjectRequest request) {
+        return fetch(request)
+                .map(responsePublisher -> toFileContent(key, responsePublisher.response(), Flux.from(responsePublisher)))
+                .doOnError(error -> log.error("ERROR_DOWNLOADING_FROM_S3: {}", key, error));
+    }
+
+    private Mono<ResponsePublisher<GetObjectResponse>> fetch(GetObjectRequest request) {
+        return (hedgingEnabled ? hedgedGet(request) : timedGet(request))
+                .timeout(getDeadline)
+                .onErrorMap(TimeoutException.class, error -> {
+                    deadlinesExceeded.increment();
+                    log.warn("S3_GET_DEADLINE_EXCEEDED: {}", request.key());
+                    return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Storage did not respond in time");
+                });
+    }
+
+    private Mono<ResponsePublisher<GetObjectResponse>> hedgedGet(GetObjectRequest request) {
+        return Mono.defer(() -> {
+            Mono<ResponsePublisher<GetObjectResponse>> primary = timedGet(request).cache();
+            AtomicReference<ResponsePublisher<GetObjectResponse>> hedgeResult = new AtomicReference<>();
+            Mono<ResponsePublisher<GetObjectResponse>> hedge = Mono.defer(() -> {
+                        hedgesFired.increment();
+                        log.info("S3_GET_HEDGE_FIRED: {}", request.key());
+                        return timedGet(request);
+                    })
+                    .doOnNext(hedgeResult::set);
+            AtomicBoolean settled = new AtomicBoolean();
+            return primary
+                    .timeout(hedgeDelay(), Mono.firstWithValue(primary, hedge))
+                    .doOnNext(winner -> {
+                        settled.set(true);
+                        if (winner == hedgeResult.get()) {
+                            hedgesWon.increment();
+                        }
+                        primary.subscribe(publisher -> {
+                            if (publisher != winner) {
+                                discard(publisher);
+                            }
+                        }, error -> { });
+                    })
+                    .doOnCancel(() -> {
+                        if (!settled.get()) {
+                            primary.subscribe(FileRepositoryS3::discard, error -> { });
+                        }
+                    });
+        });
+    }
+
+    private Mono<ResponsePublisher<GetObjectResponse>> timedGet(GetObjectRequest request) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return Mono.fromCompletionStage(() -> s3Client.getObject(request, AsyncResponseTransformer.toPublisher()))
+                    .doOnNext(publisher -> sample.stop(firstByteTimer));
+        });
+    }
+
+    private Duration hedgeDelay() {
+        for (ValueAtPercentile percentile : firstByteTimer.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == HEDGE_PERCENTILE && percentile.value() > 0) {
+                Duration observed = Duration.ofNanos((long) percentile.value(TimeUnit.NANOSECONDS));
+                return observed.compareTo(hedgingMinDelay) > 0 ? observed : hedgingMinDelay;
+            }
+        }
+        return hedgingMinDelay;
+    }
+
+    private static void discard(ResponsePublisher<GetObjectResponse> publisher) {
+        publisher.subscribe(new BaseSubscriber<ByteBuffer>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                cancel();
+            }
+        });
+    }
+
+    private static FileContentDTO toFileContent(String key, GetObjectResponse response, Flux<ByteBuffer> body) {
+        return FileContentDTO.builder()
+                .contentLength(response.contentLength())
+                .contentRange(response.contentRange())
+                .contentType(response.contentType())
+                .eTag(response.eTag())
+                .content(body
+                        .<DataBuffer>map(DefaultDataBufferFactory.sharedInstance::wrap)
+                        .doOnComplete(() -> log.info("DOWNLOADED_SUCCESSFULLY_FROM_S3: {}", key))
+                        .doOnError(error -> log.error("ERROR_DOWNLOADING_FROM_S3: {}", key, error)))
+                .build();
     }
 }
\ No newline at end of file
@@ -1,13 +1,66 @@
 package com.kasumov.WebfluxRestApp.repository;
 
-import com.kasumov.WebfluxRestApp.dto.FileDTO;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.codec.multipart.FilePart;
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
+import com.kasumov.WebfluxRestApp.dto.PresignedUrlDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredFileDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredObjectDTO;
+import com.kasumov.WebfluxRestApp.dto.UploadedPartDTO;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface FileStorageRepository {
 
-    Mono<FileDTO> uploadUserFileToStorage(FilePart filePart);
-    Mono<ResponseEntity<ByteArrayResource>> downloadFileFromStorage(String fileName);
+    String BACKEND = "fileStorageBackend";
+
+    Mono<StoredFileDTO> uploadUserFileToStorage(Flux<DataBuffer> content);
+    Mono<FileContentDTO> downloadFileFromStorage(String key, HttpRange range, String ifRange);
+
+    Mono<FileContentDTO> getFileMetadata(String key);
+
+    Mono<StoredFileDTO> findStoredFile(String key);
+
+    Flux<StoredObjectDTO> listStoredObjects(String startAfter, int limit);
+
+    Mono<Void> deleteStoredObject(String key);
+
+    default Mono<String> changeStorageClass(String key, String storageClass) {
+        return Mono.error(new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Storage classes are not supported by this storage"));
+    }
+
+    default Mono<PresignedUrlDTO> presignUpload(String uploadKey, String checksum, long size, String contentType) {
+        return Mono.error(new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Presigned URLs are not supported by this storage"));
+    }
+
+    default Mono<StoredFileDTO> completePresignedUpload(String uploadKey, String checksum, long size) {
+        return Mono.error(new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Presigned URLs are not supported by this storage"));
+    }
+
+    default Mono<PresignedUrlDTO> presignDownload(String key, String fileName, String contentType, String contentEncoding) {
+        return Mono.error(new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Presigned URLs are not supported by this storage"));
+    }
+
+    default Mono<String> createResumableUpload(String uploadKey) {
+        return Mono.error(new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Resumable uploads are not supported by this storage"));
+    }
+
+    default Flux<UploadedPartDTO> uploadResumableParts(String uploadKey, String uploadId, int firstPartNumber,
+                                                       long partSize, long remaining, byte[] digestState,
+                                                       Flux<DataBuffer> content) {
+        return Flux.error(new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Resumable uploads are not supported by this storage"));
+    }
+
+    default Mono<StoredFileDTO> completeResumableUpload(String uploadKey, String uploadId, List<UploadedPartDTO> parts,
+                                                        byte[] digestState) {
+        return Mono.error(new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Resumable uploads are not supported by this storage"));
+    }
+
+    default Mono<Void> abortResumableUpload(String uploadKey, String uploadId) {
+        return Mono.error(new ResponseStatusException(HttpStatus.NOT_IMPLEMENTED, "Resumable uploads are not supported by this storage"));
+    }
 }
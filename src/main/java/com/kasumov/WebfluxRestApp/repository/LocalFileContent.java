@@ -0,0 +1,54 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+final class LocalFileContent {
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+
+    private LocalFileContent() {
+    }
+
+    static FileContentDTO read(Path path, long size, String eTag, String contentType, HttpRange range, String ifRange) {
+        long start = 0;
+        long end = size - 1;
+        String contentRange = null;
+        if (range != null && (ifRange == null || ifRange.equals(eTag))) {
+            try {
+                start = range.getRangeStart(size);
+                end = range.getRangeEnd(size);
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            }
+            contentRange = "bytes " + start + "-" + end + "/" + size;
+        }
+        long length = size == 0 ? 0 : end - start + 1;
+
+        Flux<DataBuffer> content = DataBufferUtils.takeUntilByteCount(
+                DataBufferUtils.readAsynchronousFileChannel(
+                        () -> AsynchronousFileChannel.open(path, StandardOpenOption.READ),
+                        start, DefaultDataBufferFactory.sharedInstance, READ_BUFFER_SIZE),
+                length);
+
+        return FileContentDTO.builder()
+                .contentLength(length)
+                .contentRange(contentRange)
+                .contentType(contentType)
+                .eTag(eTag)
+                .path(path)
+                .position(start)
+                .content(content)
+                .build();
+    }
+}
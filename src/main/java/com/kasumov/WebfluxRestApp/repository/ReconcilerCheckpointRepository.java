@@ -0,0 +1,26 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.model.ReconcilerCheckpoint;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface ReconcilerCheckpointRepository extends R2dbcRepository<ReconcilerCheckpoint, String> {
+
+    @Modifying
+    @Query("UPDATE reconciler_checkpoint SET lease_owner = :owner, lease_until = :leaseUntil " +
+            "WHERE name = :name AND (lease_until IS NULL OR lease_until < :now OR lease_owner = :owner)")
+    Mono<Integer> acquireLease(String name, String owner, LocalDateTime now, LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE reconciler_checkpoint SET cursor_value = :cursor, lease_until = :leaseUntil, updated_at = :now " +
+            "WHERE name = :name AND lease_owner = :owner")
+    Mono<Integer> saveCursor(String name, String owner, String cursor, LocalDateTime now, LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE reconciler_checkpoint SET lease_until = NULL WHERE name = :name AND lease_owner = :owner")
+    Mono<Integer> releaseLease(String name, String owner);
+}
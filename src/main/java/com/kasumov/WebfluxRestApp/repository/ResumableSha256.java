@@ -0,0 +1,142 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+final class ResumableSha256 {
+
+    private static final int BLOCK_SIZE = 64;
+    private static final int HASH_WORDS = 8;
+    private static final int STATE_HEADER_SIZE = HASH_WORDS * Integer.BYTES + Long.BYTES;
+
+    private static final int[] INITIAL_HASH = {
+            0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+
+    private static final int[] K = {
+            0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+            0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+            0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+            0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+            0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+            0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+            0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+            0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+    };
+
+    private final int[] hash;
+    private final byte[] block = new byte[BLOCK_SIZE];
+    private final int[] words = new int[64];
+    private long size;
+
+    private ResumableSha256(int[] hash, long size) {
+        this.hash = hash;
+        this.size = size;
+    }
+
+    static ResumableSha256 restore(byte[] state) {
+        if (state == null) {
+            return new ResumableSha256(INITIAL_HASH.clone(), 0);
+        }
+        if (state.length < STATE_HEADER_SIZE) {
+            throw new IllegalArgumentException("Invalid digest state");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(state);
+        int[] hash = new int[HASH_WORDS];
+        for (int i = 0; i < HASH_WORDS; i++) {
+            hash[i] = buffer.getInt();
+        }
+        ResumableSha256 digest = new ResumableSha256(hash, buffer.getLong());
+        if (digest.size < 0 || buffer.remaining() != digest.buffered()) {
+            throw new IllegalArgumentException("Invalid digest state");
+        }
+        buffer.get(digest.block, 0, buffer.remaining());
+        return digest;
+    }
+
+    void update(byte[] bytes) {
+        int offset = 0;
+        int buffered = buffered();
+        size += bytes.length;
+        if (buffered > 0) {
+            int length = Math.min(bytes.length, BLOCK_SIZE - buffered);
+            System.arraycopy(bytes, 0, block, buffered, length);
+            offset = length;
+            if (buffered + length < BLOCK_SIZE) {
+                return;
+            }
+            compress(block, 0);
+        }
+        for (; offset + BLOCK_SIZE <= bytes.length; offset += BLOCK_SIZE) {
+            compress(bytes, offset);
+        }
+        System.arraycopy(bytes, offset, block, 0, bytes.length - offset);
+    }
+
+    byte[] state() {
+        ByteBuffer buffer = ByteBuffer.allocate(STATE_HEADER_SIZE + buffered());
+        for (int word : hash) {
+            buffer.putInt(word);
+        }
+        return buffer.putLong(size)
+                .put(block, 0, buffered())
+                .array();
+    }
+
+    long size() {
+        return size;
+    }
+
+    String hex() {
+        ResumableSha256 copy = restore(state());
+        int buffered = buffered();
+        byte[] padding = new byte[(buffered < 56 ? 56 : 120) - buffered + Long.BYTES];
+        padding[0] = (byte) 0x80;
+        ByteBuffer.wrap(padding, padding.length - Long.BYTES, Long.BYTES).putLong(size * 8);
+        copy.update(padding);
+        ByteBuffer digest = ByteBuffer.allocate(HASH_WORDS * Integer.BYTES);
+        Arrays.stream(copy.hash).forEach(digest::putInt);
+        return HexFormat.of().formatHex(digest.array());
+    }
+
+    private int buffered() {
+        return (int) (size % BLOCK_SIZE);
+    }
+
+    private void compress(byte[] bytes, int offset) {
+        for (int i = 0; i < 16; i++) {
+            int index = offset + i * 4;
+            words[i] = (bytes[index] & 0xff) << 24 | (bytes[index + 1] & 0xff) << 16
+                    | (bytes[index + 2] & 0xff) << 8 | (bytes[index + 3] & 0xff);
+        }
+        for (int i = 16; i < 64; i++) {
+            int s0 = Integer.rotateRight(words[i - 15], 7) ^ Integer.rotateRight(words[i - 15], 18) ^ (words[i - 15] >>> 3);
+            int s1 = Integer.rotateRight(words[i - 2], 17) ^ Integer.rotateRight(words[i - 2], 19) ^ (words[i - 2] >>> 10);
+            words[i] = words[i - 16] + s0 + words[i - 7] + s1;
+        }
+        int a = hash[0], b = hash[1], c = hash[2], d = hash[3], e = hash[4], f = hash[5], g = hash[6], h = hash[7];
+        for (int i = 0; i < 64; i++) {
+            int t1 = h + (Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25))
+                    + ((e & f) ^ (~e & g)) + K[i] + words[i];
+            int t2 = (Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22))
+                    + ((a & b) ^ (a & c) ^ (b & c));
+            h = g;
+            g = f;
+            f = e;
+            e = d + t1;
+            d = c;
+            c = b;
+            b = a;
+            a = t1 + t2;
+        }
+        hash[0] += a;
+        hash[1] += b;
+        hash[2] += c;
+        hash[3] += d;
+        hash[4] += e;
+        hash[5] += f;
+        hash[6] += g;
+        hash[7] += h;
+    }
+}
@@ -0,0 +1,105 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.core.async.ResponsePublisher;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Slf4j
+public class S3DownloadCoalescer {
+
+    public record ObjectStream(GetObjectResponse response, Flux<ByteBuffer> body) {
+    }
+
+    private final Function<GetObjectRequest, Mono<ResponsePublisher<GetObjectResponse>>> fetcher;
+    private final long joinWindowNanos;
+    private final int prefetch;
+    private final int subscriberBufferSize;
+    private final Counter coalesced;
+    private final Map<String, SharedDownload> downloads = new ConcurrentHashMap<>();
+
+    public S3DownloadCoalescer(Function<GetObjectRequest, Mono<ResponsePublisher<GetObjectResponse>>> fetcher,
+                               Duration joinWindow, int prefetch, int subscriberBufferSize, Counter coalesced) {
+        this.fetcher = fetcher;
+        this.joinWindowNanos = joinWindow.toNanos();
+        this.prefetch = prefetch;
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.coalesced = coalesced;
+    }
+
+    public Mono<ObjectStream> get(String key, GetObjectRequest request) {
+        return Mono.defer(() -> {
+            SharedDownload[] created = new SharedDownload[1];
+            SharedDownload download = downloads.compute(key, (k, existing) -> {
+                if (existing != null && existing.isJoinable()) {
+                    return existing;
+                }
+                created[0] = new SharedDownload(k, request);
+                return created[0];
+            });
+            if (download != created[0]) {
+                coalesced.increment();
+                log.info("COALESCED_DOWNLOAD: {}", key);
+            }
+            return download.response
+                    .map(publisher -> new ObjectStream(publisher.response(), download.body(request)));
+        });
+    }
+
+    private final class SharedDownload {
+        private final String key;
+        private final long createdAt = System.nanoTime();
+        private final Mono<ResponsePublisher<GetObjectResponse>> response;
+        private final Flux<ByteBuffer> shared;
+        private boolean closed;
+
+        private SharedDownload(String key, GetObjectRequest request) {
+            this.key = key;
+            this.response = fetcher.apply(request)
+                    .doOnError(error -> close())
+                    .cache();
+            this.shared = response
+                    .flatMapMany(Flux::from)
+                    .doOnNext(byteBuffer -> close())
+                    .doFinally(signal -> close())
+                    .publish(prefetch)
+                    .refCount();
+        }
+
+        private synchronized boolean isJoinable() {
+            return !closed && System.nanoTime() - createdAt < joinWindowNanos;
+        }
+
+        private synchronized void close() {
+            if (!closed) {
+                closed = true;
+                downloads.remove(key, this);
+            }
+        }
+
+        private Flux<ByteBuffer> body(GetObjectRequest request) {
+            Flux<ByteBuffer> ownFetch = fetcher.apply(request).flatMapMany(Flux::from);
+            return Flux.from(subscriber -> {
+                synchronized (this) {
+                    if (closed) {
+                        ownFetch.subscribe(subscriber);
+                    } else {
+                        shared.onBackpressureBuffer(subscriberBufferSize, BufferOverflowStrategy.ERROR)
+                                .map(ByteBuffer::asReadOnlyBuffer)
+                                .subscribe(subscriber);
+                    }
+                }
+            });
+        }
+    }
+}
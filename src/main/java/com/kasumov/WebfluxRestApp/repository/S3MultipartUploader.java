@@ -0,0 +1,370 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.dto.StoredFileDTO;
+import com.kasumov.WebfluxRestApp.dto.UploadedPartDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+public class S3MultipartUploader {
+
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long MAX_COPY_OBJECT_SIZE = 5L * 1024 * 1024 * 1024;
+    private static final long COPY_PART_SIZE = 512L * 1024 * 1024;
+    private static final Duration RETRY_BACKOFF = Duration.ofMillis(200);
+    private static final String STAGING_PREFIX = "uploads/";
+    private static final int NOT_FOUND = 404;
+
+    private final S3AsyncClient s3Client;
+    private final String bucketName;
+    private final String keyPrefix;
+    private final long partSize;
+    private final int concurrency;
+    private final int maxRetries;
+
+    public S3MultipartUploader(S3AsyncClient s3Client, String bucketName, String keyPrefix,
+                               long partSize, int concurrency, int maxRetries) {
+        this.s3Client = s3Client;
+        this.bucketName = bucketName;
+        this.keyPrefix = keyPrefix;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        this.concurrency = Math.max(concurrency, 1);
+        this.maxRetries = Math.max(maxRetries, 0);
+    }
+
+    public Mono<StoredFileDTO> upload(Flux<DataBuffer> content) {
+        return Mono.defer(() -> {
+            ContentDigest digest = new ContentDigest();
+            return slice(content, partSize)
+                    .doOnNext(digest::update)
+                    .switchOnFirst((signal, parts) -> {
+                        byte[] firstPart = signal.get();
+                        if (firstPart != null && firstPart.length >= partSize) {
+                            return uploadMultipart(parts, digest);
+                        }
+                        return parts.defaultIfEmpty(new byte[0])
+                                .next()
+                                .flatMap(bytes -> putObject(bytes, digest));
+                    })
+                    .next();
+        });
+    }
+
+    public Mono<String> createUpload(String uploadKey) {
+        return createMultipartUpload(stagingKey(uploadKey));
+    }
+
+    public Mono<StoredFileDTO> completeStagedObject(String uploadKey, String checksum, long size) {
+        String stagingKey = stagingKey(uploadKey);
+        String expectedChecksum = Base64.getEncoder().encodeToString(HexFormat.of().parseHex(checksum));
+        return Mono.fromCompletionStage(() ->
+                        s3Client.headObject(HeadObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(stagingKey)
+                                .checksumMode(ChecksumMode.ENABLED)
+                                .build()))
+                .filter(response -> response.contentLength() == size
+                        && expectedChecksum.equals(response.checksumSHA256()))
+                .onErrorResume(error -> error instanceof S3Exception s3Exception
+                                && s3Exception.statusCode() == NOT_FOUND,
+                        error -> Mono.empty())
+                .flatMap(response -> findETag(checksum)
+                        .flatMap(eTag -> deleteObject(stagingKey)
+                                .thenReturn(stored(checksum, size, eTag, true)))
+                        .switchIfEmpty(Mono.defer(() -> moveToContentKey(stagingKey, checksum, size))));
+    }
+
+    public String stagingKey(String uploadKey) {
+        return objectKey(STAGING_PREFIX + uploadKey);
+    }
+
+    public Flux<UploadedPartDTO> uploadParts(String uploadKey, String uploadId, int firstPartNumber, long uploadPartSize,
+                                             long remaining, byte[] digestState, Flux<DataBuffer> content) {
+        String stagingKey = stagingKey(uploadKey);
+        return Flux.defer(() -> {
+            ResumableSha256 digest = ResumableSha256.restore(digestState);
+            AtomicLong received = new AtomicLong();
+            AtomicInteger partNumber = new AtomicInteger(firstPartNumber);
+            return slice(content, uploadPartSize)
+                    .concatMap(bytes -> {
+                        long total = received.addAndGet(bytes.length);
+                        if (total > remaining) {
+                            return Mono.error(new IllegalArgumentException("Chunk exceeds the declared upload size"));
+                        }
+                        if (bytes.length < uploadPartSize && total < remaining) {
+                            log.warn("DISCARDING_INCOMPLETE_PART: {} part {}", stagingKey, partNumber.get());
+                            return Mono.empty();
+                        }
+                        return uploadPart(stagingKey, uploadId, partNumber.getAndIncrement(), bytes)
+                                .map(completedPart -> {
+                                    digest.update(bytes);
+                                    return new UploadedPartDTO(completedPart.partNumber(), completedPart.eTag(),
+                                            bytes.length, digest.state());
+                                });
+                    }, 1);
+        });
+    }
+
+    public Mono<StoredFileDTO> completeUpload(String uploadKey, String uploadId, List<UploadedPartDTO> parts,
+                                              byte[] digestState) {
+        String stagingKey = stagingKey(uploadKey);
+        List<CompletedPart> completedParts = parts.stream()
+                .map(part -> CompletedPart.builder()
+                        .partNumber(part.getPartNumber())
+                        .eTag(part.getETag())
+                        .build())
+                .toList();
+        long size = parts.stream()
+                .mapToLong(UploadedPartDTO::getSize)
+                .sum();
+        return Mono.fromCallable(() -> ResumableSha256.restore(digestState))
+                .filter(digest -> digest.size() == size)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Digest state does not cover the uploaded parts")))
+                .flatMap(digest -> {
+                    String key = digest.hex();
+                    return findETag(key)
+                            .flatMap(eTag -> abortMultipartUpload(stagingKey, uploadId)
+                                    .thenReturn(stored(key, digest.size(), eTag, true)))
+                            .switchIfEmpty(Mono.defer(() ->
+                                    completeMultipartUpload(stagingKey, uploadId, completedParts)
+                                            .then(moveToContentKey(stagingKey, key, digest.size()))));
+                });
+    }
+
+    public Mono<Void> abortUpload(String uploadKey, String uploadId) {
+        return abortMultipartUpload(stagingKey(uploadKey), uploadId);
+    }
+
+    private Flux<byte[]> slice(Flux<DataBuffer> content, long partSize) {
+        return Flux.defer(() -> {
+                    AtomicLong buffered = new AtomicLong();
+                    return content.bufferUntil(dataBuffer -> {
+                        if (buffered.addAndGet(dataBuffer.readableByteCount()) >= partSize) {
+                            buffered.set(0);
+                            return true;
+                        }
+                        return false;
+                    });
+                })
+                .map(S3MultipartUploader::join)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private Mono<StoredFileDTO> putObject(byte[] bytes, ContentDigest digest) {
+        String key = digest.hex();
+        return findETag(key)
+                .map(eTag -> stored(key, digest.size(), eTag, true))
+                .switchIfEmpty(Mono.defer(() ->
+                        Mono.fromCompletionStage(() ->
+                                        s3Client.putObject(PutObjectRequest.builder()
+                                                        .bucket(bucketName)
+                                                        .key(objectKey(key))
+                                                        .contentLength((long) bytes.length)
+                                                        .build(),
+                                                AsyncRequestBody.fromBytesUnsafe(bytes)))
+                                .map(response -> stored(key, digest.size(), response.eTag(), false))));
+    }
+
+    private Mono<StoredFileDTO> uploadMultipart(Flux<byte[]> parts, ContentDigest digest) {
+        String stagingKey = objectKey(STAGING_PREFIX + UUID.randomUUID());
+        return createMultipartUpload(stagingKey)
+                .flatMap(uploadId -> parts.index()
+                        .flatMap(part -> uploadPart(stagingKey, uploadId, part.getT1().intValue() + 1, part.getT2()), concurrency)
+                        .collectSortedList(Comparator.comparing(CompletedPart::partNumber))
+                        .flatMap(completedParts -> {
+                            String key = digest.hex();
+                            return findETag(key)
+                                    .flatMap(eTag -> abortMultipartUpload(stagingKey, uploadId)
+                                            .thenReturn(stored(key, digest.size(), eTag, true)))
+                                    .switchIfEmpty(Mono.defer(() ->
+                                            completeMultipartUpload(stagingKey, uploadId, completedParts)
+                                                    .then(moveToContentKey(stagingKey, key, digest.size()))));
+                        })
+                        .onErrorResume(error -> abortMultipartUpload(stagingKey, uploadId).then(Mono.error(error)))
+                        .doOnCancel(() -> abortMultipartUpload(stagingKey, uploadId).subscribe()));
+    }
+
+    private Mono<StoredFileDTO> moveToContentKey(String stagingKey, String key, long size) {
+        return copyObject(stagingKey, objectKey(key), size, null)
+                .flatMap(eTag -> deleteObject(stagingKey)
+                        .thenReturn(stored(key, size, eTag, false)));
+    }
+
+    private Mono<String> createMultipartUpload(String objectKey) {
+        return createMultipartUpload(objectKey, null);
+    }
+
+    private Mono<String> createMultipartUpload(String objectKey, StorageClass storageClass) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                                .bucket(bucketName)
+                                .key(objectKey)
+                                .storageClass(storageClass)
+                                .build()))
+                .map(CreateMultipartUploadResponse::uploadId);
+    }
+
+    private Mono<CompletedPart> uploadPart(String objectKey, String uploadId, int partNumber, byte[] bytes) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.uploadPart(UploadPartRequest.builder()
+                                        .bucket(bucketName)
+                                        .key(objectKey)
+                                        .uploadId(uploadId)
+                                        .partNumber(partNumber)
+                                        .contentLength((long) bytes.length)
+                                        .build(),
+                                AsyncRequestBody.fromBytesUnsafe(bytes)))
+                .retryWhen(Retry.backoff(maxRetries, RETRY_BACKOFF)
+                        .doBeforeRetry(signal -> log.warn("RETRYING_PART_UPLOAD: {} part {}, attempt {}",
+                                objectKey, partNumber, signal.totalRetries() + 1)))
+                .map(response -> CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .build());
+    }
+
+    private Mono<String> completeMultipartUpload(String objectKey, String uploadId, List<CompletedPart> completedParts) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                                .bucket(bucketName)
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .multipartUpload(CompletedMultipartUpload.builder()
+                                        .parts(completedParts)
+                                        .build())
+                                .build()))
+                .doOnSuccess(response -> log.info("COMPLETED_MULTIPART_UPLOAD: {} with {} parts", objectKey, completedParts.size()))
+                .map(CompleteMultipartUploadResponse::eTag);
+    }
+
+    private Mono<Void> abortMultipartUpload(String objectKey, String uploadId) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                                .bucket(bucketName)
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .build()))
+                .doOnSuccess(response -> log.warn("ABORTED_MULTIPART_UPLOAD: {}", objectKey))
+                .doOnError(error -> log.error("ERROR_ABORTING_MULTIPART_UPLOAD: {}", objectKey, error))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    public Mono<String> changeStorageClass(String key, long size, StorageClass storageClass) {
+        String objectKey = objectKey(key);
+        return copyObject(objectKey, objectKey, size, storageClass)
+                .doOnSuccess(eTag -> log.info("CHANGED_STORAGE_CLASS: {} -> {}", key, storageClass));
+    }
+
+    private Mono<String> copyObject(String sourceKey, String destinationKey, long size, StorageClass storageClass) {
+        if (size > MAX_COPY_OBJECT_SIZE) {
+            return copyMultipart(sourceKey, destinationKey, size, storageClass);
+        }
+        return Mono.fromCompletionStage(() ->
+                        s3Client.copyObject(CopyObjectRequest.builder()
+                                .sourceBucket(bucketName)
+                                .sourceKey(sourceKey)
+                                .destinationBucket(bucketName)
+                                .destinationKey(destinationKey)
+                                .storageClass(storageClass)
+                                .build()))
+                .map(response -> response.copyObjectResult().eTag());
+    }
+
+    private Mono<String> copyMultipart(String sourceKey, String destinationKey, long size, StorageClass storageClass) {
+        int partCount = (int) ((size + COPY_PART_SIZE - 1) / COPY_PART_SIZE);
+        return createMultipartUpload(destinationKey, storageClass)
+                .flatMap(uploadId -> Flux.range(1, partCount)
+                        .flatMap(partNumber -> {
+                            long start = (partNumber - 1) * COPY_PART_SIZE;
+                            long end = Math.min(start + COPY_PART_SIZE, size) - 1;
+                            return Mono.fromCompletionStage(() ->
+                                            s3Client.uploadPartCopy(UploadPartCopyRequest.builder()
+                                                    .sourceBucket(bucketName)
+                                                    .sourceKey(sourceKey)
+                                                    .destinationBucket(bucketName)
+                                                    .destinationKey(destinationKey)
+                                                    .uploadId(uploadId)
+                                                    .partNumber(partNumber)
+                                                    .copySourceRange("bytes=" + start + "-" + end)
+                                                    .build()))
+                                    .retryWhen(Retry.backoff(maxRetries, RETRY_BACKOFF))
+                                    .map(response -> CompletedPart.builder()
+                                            .partNumber(partNumber)
+                                            .eTag(response.copyPartResult().eTag())
+                                            .build());
+                        }, concurrency)
+                        .collectSortedList(Comparator.comparing(CompletedPart::partNumber))
+                        .flatMap(completedParts -> completeMultipartUpload(destinationKey, uploadId, completedParts))
+                        .onErrorResume(error -> abortMultipartUpload(destinationKey, uploadId).then(Mono.error(error))));
+    }
+
+    private Mono<Void> deleteObject(String objectKey) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.deleteObject(DeleteObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(objectKey)
+                                .build()))
+                .doOnError(error -> log.error("ERROR_DELETING_STAGING_OBJECT: {}", objectKey, error))
+                .onErrorResume(error -> Mono.empty())
+                .then();
+    }
+
+    private Mono<String> findETag(String key) {
+        return Mono.fromCompletionStage(() ->
+                        s3Client.headObject(HeadObjectRequest.builder()
+                                .bucket(bucketName)
+                                .key(objectKey(key))
+                                .build()))
+                .map(HeadObjectResponse::eTag)
+                .onErrorResume(error -> error instanceof S3Exception s3Exception
+                                && s3Exception.statusCode() == NOT_FOUND,
+                        error -> Mono.empty())
+                .doOnNext(eTag -> log.info("DEDUPLICATED_UPLOAD: {}", key));
+    }
+
+    private String objectKey(String key) {
+        return keyPrefix + "/" + key;
+    }
+
+    private static StoredFileDTO stored(String key, long size, String eTag, boolean deduplicated) {
+        return StoredFileDTO.builder()
+                .key(key)
+                .checksum(key)
+                .size(size)
+                .eTag(eTag)
+                .deduplicated(deduplicated)
+                .build();
+    }
+
+    private static byte[] join(List<DataBuffer> dataBuffers) {
+        int length = dataBuffers.stream()
+                .mapToInt(DataBuffer::readableByteCount)
+                .sum();
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        for (DataBuffer dataBuffer : dataBuffers) {
+            int count = dataBuffer.readableByteCount();
+            dataBuffer.read(bytes, offset, count);
+            offset += count;
+            DataBufferUtils.release(dataBuffer);
+        }
+        return bytes;
+    }
+}
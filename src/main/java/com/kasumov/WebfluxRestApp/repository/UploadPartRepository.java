@@ -0,0 +1,22 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.model.UploadPart;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface UploadPartRepository extends R2dbcRepository<UploadPart, Long> {
+
+    @Modifying
+    @Query("INSERT INTO upload_part (session_id, part_number, etag, size) VALUES (:sessionId, :partNumber, :eTag, :size) " +
+            "ON DUPLICATE KEY UPDATE etag = VALUES(etag), size = VALUES(size)")
+    Mono<Integer> upsert(Long sessionId, Integer partNumber, String eTag, Long size);
+
+    @Query("SELECT COALESCE(MAX(part_number), 0) FROM upload_part WHERE session_id = :sessionId")
+    Mono<Integer> findLastPartNumber(Long sessionId);
+
+    @Query("SELECT * FROM upload_part WHERE session_id = :sessionId ORDER BY part_number")
+    Flux<UploadPart> findAllBySessionId(Long sessionId);
+}
@@ -0,0 +1,22 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.model.UploadSession;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import reactor.core.publisher.Mono;
+
+public interface UploadSessionRepository extends R2dbcRepository<UploadSession, Long> {
+
+    @Query("SELECT * FROM upload_session WHERE id = :id AND status = 'ACTIVE'")
+    Mono<UploadSession> findActiveById(Long id);
+
+    @Modifying
+    @Query("UPDATE upload_session SET committed_offset = :newOffset, digest_state = :digestState " +
+            "WHERE id = :id AND committed_offset = :expectedOffset AND status = 'ACTIVE'")
+    Mono<Integer> advanceCommittedOffset(Long id, Long expectedOffset, Long newOffset, byte[] digestState);
+
+    @Modifying
+    @Query("UPDATE upload_session SET stored_key = :storedKey WHERE id = :id AND status = 'ACTIVE'")
+    Mono<Integer> markStored(Long id, String storedKey);
+}
@@ -2,6 +2,7 @@ package com.kasumov.WebfluxRestApp.repository;
 
 import com.kasumov.WebfluxRestApp.model.UserEntity;
 import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -10,12 +11,16 @@ public interface UserRepository extends R2dbcRepository<UserEntity, Long> {
 
     Mono<Boolean> existsByUsernameAndIdNot(String username, Long id);
 
+    @Query("SELECT * FROM users WHERE username = :username AND status = 'ACTIVE'")
     Mono<UserEntity> findActiveByUsername(String username);
 
     Mono<UserEntity> findActiveById(Long id);
 
     Flux<UserEntity> findAllActive();
 
+    @Query("SELECT * FROM users WHERE id > :cursor AND status = 'ACTIVE' ORDER BY id LIMIT :limit")
+    Flux<UserEntity> findActivePage(long cursor, int limit);
+
     @Modifying
     Mono<Void> deleteActiveById(Long id);
 
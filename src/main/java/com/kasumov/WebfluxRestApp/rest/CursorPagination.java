@@ -0,0 +1,55 @@
+package com.kasumov.WebfluxRestApp.rest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.ToLongFunction;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
+
+@Component
+class CursorPagination {
+
+    @FunctionalInterface
+    interface PageQuery<T> {
+        Flux<T> fetch(long cursor, int limit);
+    }
+
+    @Value("${app.pagination.max-size}")
+    private int maxSize;
+
+    int limit(int requested) {
+        return Math.max(1, Math.min(requested, maxSize));
+    }
+
+    <T> Flux<T> stream(long cursor, PageQuery<T> pageQuery, ToLongFunction<T> idOf) {
+        return pageQuery.fetch(cursor, maxSize)
+                .collectList()
+                .expand(page -> page.size() < maxSize
+                        ? Mono.empty()
+                        : pageQuery.fetch(idOf.applyAsLong(page.get(page.size() - 1)), maxSize).collectList())
+                .concatMapIterable(Function.identity(), 1);
+    }
+
+    <T, R> Mono<CollectionModel<R>> toCollectionModel(List<T> page, long cursor, int limit, ToLongFunction<T> idOf,
+                                                     Function<T, Mono<R>> itemMapper, LongFunction<Object> invocation) {
+        Mono<Link> selfLinkMono = linkTo(invocation.apply(cursor)).withSelfRel().toMono();
+        Mono<List<Link>> linksMono = page.size() < limit
+                ? selfLinkMono.map(List::of)
+                : selfLinkMono.zipWith(linkTo(invocation.apply(idOf.applyAsLong(page.get(page.size() - 1))))
+                        .withRel(IanaLinkRelations.NEXT).toMono(), List::of);
+
+        return Flux.fromIterable(page)
+                .concatMap(itemMapper)
+                .collectList()
+                .zipWith(linksMono, CollectionModel::of);
+    }
+}
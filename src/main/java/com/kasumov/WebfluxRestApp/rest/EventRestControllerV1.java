@@ -6,8 +6,10 @@ import com.kasumov.WebfluxRestApp.service.EventService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
@@ -15,7 +17,6 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.nio.file.Paths;
 
 import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
@@ -27,6 +28,7 @@ import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.met
 public class EventRestControllerV1 {
 
     private final EventService eventService;
+    private final CursorPagination cursorPagination;
 
     @GetMapping("/{id}")
     @Operation(summary = "Find an event by ID", description = "Finds an event with the specified ID")
@@ -42,17 +44,49 @@ public class EventRestControllerV1 {
     @GetMapping("/")
     @Operation(summary = "Find all events or events by user ID if role USER", description = "Finds all events or events by user ID if role USER")
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
-    public Flux<EntityModel<EventDTO>> getAllEvents(Mono<Authentication> authMono) {
-        return eventService.getAllEventsByAuth(authMono)
-                .flatMap(eventDTO -> buildEntityModelWithLinks(eventDTO, authMono));
+    public Mono<CollectionModel<EntityModel<EventDTO>>> getAllEvents(@RequestParam(defaultValue = "0") long cursor,
+                                                                     @RequestParam(defaultValue = "${app.pagination.default-size}") int limit,
+                                                                     Mono<Authentication> authMono) {
+        int pageSize = cursorPagination.limit(limit);
+        return eventService.getAllEventsByAuth(cursor, pageSize, authMono)
+                .collectList()
+                .flatMap(page -> cursorPagination.toCollectionModel(page, cursor, pageSize, EventDTO::getId,
+                        eventDTO -> buildEntityModelWithLinks(eventDTO, authMono),
+                        nextCursor -> methodOn(EventRestControllerV1.class).getAllEvents(nextCursor, pageSize, authMono)));
+    }
+
+    @GetMapping(value = "/", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @Operation(summary = "Stream all events or events by user ID if role USER", description = "Streams all events or events by user ID if role USER as NDJSON or Server-Sent Events")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Flux<EntityModel<EventDTO>> streamAllEvents(@RequestParam(defaultValue = "0") long cursor, Mono<Authentication> authMono) {
+        return cursorPagination.stream(cursor,
+                        (pageCursor, limit) -> eventService.getAllEventsByAuth(pageCursor, limit, authMono), EventDTO::getId)
+                .concatMap(eventDTO -> buildEntityModelWithLinks(eventDTO, authMono));
     }
 
     @GetMapping("/by-user-id/")
     @Operation(summary = "Find all events by user ID", description = "Finds all events by user ID")
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
-    public Flux<EntityModel<EventDTO>> getAllEventsByUserId(@RequestParam Long userId, Mono<Authentication> authMono) {
-        return eventService.getEventsByUserId(userId)
-                .flatMap(eventDTO -> buildEntityModelWithLinks(eventDTO, authMono));
+    public Mono<CollectionModel<EntityModel<EventDTO>>> getAllEventsByUserId(@RequestParam Long userId,
+                                                                             @RequestParam(defaultValue = "0") long cursor,
+                                                                             @RequestParam(defaultValue = "${app.pagination.default-size}") int limit,
+                                                                             Mono<Authentication> authMono) {
+        int pageSize = cursorPagination.limit(limit);
+        return eventService.getEventsByUserId(userId, cursor, pageSize)
+                .collectList()
+                .flatMap(page -> cursorPagination.toCollectionModel(page, cursor, pageSize, EventDTO::getId,
+                        eventDTO -> buildEntityModelWithLinks(eventDTO, authMono),
+                        nextCursor -> methodOn(EventRestControllerV1.class).getAllEventsByUserId(userId, nextCursor, pageSize, authMono)));
+    }
+
+    @GetMapping(value = "/by-user-id/", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @Operation(summary = "Stream all events by user ID", description = "Streams all events by user ID as NDJSON or Server-Sent Events")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    public Flux<EntityModel<EventDTO>> streamAllEventsByUserId(@RequestParam Long userId, @RequestParam(defaultValue = "0") long cursor,
+                                                               Mono<Authentication> authMono) {
+        return cursorPagination.stream(cursor,
+                        (pageCursor, limit) -> eventService.getEventsByUserId(userId, pageCursor, limit), EventDTO::getId)
+                .concatMap(eventDTO -> buildEntityModelWithLinks(eventDTO, authMono));
     }
 
     @PutMapping("/{id}")
@@ -80,9 +114,8 @@ public class EventRestControllerV1 {
         Mono<Link> selfLinkMono = linkTo(methodOn(EventRestControllerV1.class)
                 .getEventById(eventDTO.getId(), authMono)).withSelfRel().toMono();
 
-        String fileName = Paths.get(eventDTO.getFile().getLocation()).getFileName().toString();
         Mono<Link> downloadLinkMono = linkTo(methodOn(FileStorageRestControllerV1.class)
-                .downloadFileByName(fileName, authMono)).withRel("download").toMono();
+                .downloadFileByName(eventDTO.getFile().getFileName(), null, null, null, null, authMono)).withRel("download").toMono();
 
         return Mono.zip(selfLinkMono, downloadLinkMono)
                 .map(links -> EntityModel.of(eventDTO, links.getT1(), links.getT2()));
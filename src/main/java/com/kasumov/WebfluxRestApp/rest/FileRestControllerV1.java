@@ -6,8 +6,10 @@ import com.kasumov.WebfluxRestApp.service.FileService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
@@ -15,7 +17,6 @@ import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.nio.file.Paths;
 
 import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
@@ -27,6 +28,7 @@ import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.met
 public class FileRestControllerV1 {
 
     private final FileService fileService;
+    private final CursorPagination cursorPagination;
 
     @GetMapping("/{id}")
     @Operation(summary = "Find a file by ID", description = "Finds a file with the specified ID")
@@ -42,17 +44,49 @@ public class FileRestControllerV1 {
     @GetMapping("/")
     @Operation(summary = "Find all files or files by user ID if role USER", description = "Finds all files or files by user ID if role USER")
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
-    public Flux<EntityModel<File>> getAllFiles(Mono<Authentication> authMono) {
-        return fileService.getAllFilesByAuth(authMono)
-                .flatMap(file -> buildEntityModelWithLinks(file, authMono));
+    public Mono<CollectionModel<EntityModel<File>>> getAllFiles(@RequestParam(defaultValue = "0") long cursor,
+                                                                @RequestParam(defaultValue = "${app.pagination.default-size}") int limit,
+                                                                Mono<Authentication> authMono) {
+        int pageSize = cursorPagination.limit(limit);
+        return fileService.getAllFilesByAuth(cursor, pageSize, authMono)
+                .collectList()
+                .flatMap(page -> cursorPagination.toCollectionModel(page, cursor, pageSize, File::getId,
+                        file -> buildEntityModelWithLinks(file, authMono),
+                        nextCursor -> methodOn(FileRestControllerV1.class).getAllFiles(nextCursor, pageSize, authMono)));
+    }
+
+    @GetMapping(value = "/", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @Operation(summary = "Stream all files or files by user ID if role USER", description = "Streams all files or files by user ID if role USER as NDJSON or Server-Sent Events")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Flux<EntityModel<File>> streamAllFiles(@RequestParam(defaultValue = "0") long cursor, Mono<Authentication> authMono) {
+        return cursorPagination.stream(cursor,
+                        (pageCursor, limit) -> fileService.getAllFilesByAuth(pageCursor, limit, authMono), File::getId)
+                .concatMap(file -> buildEntityModelWithLinks(file, authMono));
     }
 
     @GetMapping("/by-user-id/")
     @Operation(summary = "Find all files by user ID", description = "Finds all files by user ID")
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
-    public Flux<EntityModel<File>> getAllFilesByUserId(@RequestParam Long userId, Mono<Authentication> authMono) {
-        return fileService.getFilesByUserId(userId)
-                .flatMap(file -> buildEntityModelWithLinks(file, authMono));
+    public Mono<CollectionModel<EntityModel<File>>> getAllFilesByUserId(@RequestParam Long userId,
+                                                                        @RequestParam(defaultValue = "0") long cursor,
+                                                                        @RequestParam(defaultValue = "${app.pagination.default-size}") int limit,
+                                                                        Mono<Authentication> authMono) {
+        int pageSize = cursorPagination.limit(limit);
+        return fileService.getFilesByUserId(userId, cursor, pageSize)
+                .collectList()
+                .flatMap(page -> cursorPagination.toCollectionModel(page, cursor, pageSize, File::getId,
+                        file -> buildEntityModelWithLinks(file, authMono),
+                        nextCursor -> methodOn(FileRestControllerV1.class).getAllFilesByUserId(userId, nextCursor, pageSize, authMono)));
+    }
+
+    @GetMapping(value = "/by-user-id/", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @Operation(summary = "Stream all files by user ID", description = "Streams all files by user ID as NDJSON or Server-Sent Events")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
+    public Flux<EntityModel<File>> streamAllFilesByUserId(@RequestParam Long userId, @RequestParam(defaultValue = "0") long cursor,
+                                                          Mono<Authentication> authMono) {
+        return cursorPagination.stream(cursor,
+                        (pageCursor, limit) -> fileService.getFilesByUserId(userId, pageCursor, limit), File::getId)
+                .concatMap(file -> buildEntityModelWithLinks(file, authMono));
     }
 
     @PutMapping("/{id}")
@@ -87,9 +121,8 @@ public class FileRestControllerV1 {
         Mono<Link> selfLinkMono = linkTo(
                 methodOn(FileRestControllerV1.class).getFileById(file.getId(), authMono)).withSelfRel().toMono();
 
-        String fileName = Paths.get(file.getLocation()).getFileName().toString();
         Mono<Link> downloadLinkMono = linkTo(
-                methodOn(FileStorageRestControllerV1.class).downloadFileByName(fileName, authMono)).withRel("download").toMono();
+                methodOn(FileStorageRestControllerV1.class).downloadFileByName(file.getFileName(), null, null, null, null, authMono)).withRel("download").toMono();
 
         return Mono.zip(selfLinkMono, downloadLinkMono)
                 .map(links -> EntityModel.of(file, links.getT1(), links.getT2()));
@@ -1,20 +1,28 @@
 package com.kasumov.WebfluxRestApp.rest;
 
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
 import com.kasumov.WebfluxRestApp.dto.FileDTO;
+import com.kasumov.WebfluxRestApp.dto.PresignedUploadRequestDTO;
+import com.kasumov.WebfluxRestApp.dto.PresignedUrlDTO;
+import com.kasumov.WebfluxRestApp.dto.UploadSessionDTO;
 import com.kasumov.WebfluxRestApp.service.FileStorageService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 @Slf4j
 @RestController
 @RequiredArgsConstructor
@@ -36,13 +44,126 @@ public class FileStorageRestControllerV1 {
         );
     }
 
+    @PostMapping("/uploads")
+    @Operation(
+            summary = "Create a resumable upload session",
+            description = "Creates a resumable upload session for a file of the given name and size"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<UploadSessionDTO> createUploadSession(@RequestBody UploadSessionDTO request, Mono<Authentication> authMono) {
+        return fileStorageService.createUploadSession(request, authMono);
+    }
+
+    @GetMapping("/uploads/{id}")
+    @Operation(
+            summary = "Get a resumable upload session",
+            description = "Returns the resumable upload session with its committed offset"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<UploadSessionDTO> getUploadSession(@PathVariable Long id, Mono<Authentication> authMono) {
+        return fileStorageService.getUploadSession(id, authMono);
+    }
+
+    @PutMapping(value = "/uploads/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(
+            summary = "Upload a chunk of a resumable upload",
+            description = "Appends the request body at the given offset, which must equal the committed offset"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<UploadSessionDTO> uploadChunk(@PathVariable Long id,
+                                              @RequestParam long offset,
+                                              @RequestBody Flux<DataBuffer> content,
+                                              Mono<Authentication> authMono) {
+        return fileStorageService.uploadChunk(id, offset, content, authMono);
+    }
+
+    @PostMapping("/uploads/{id}/complete")
+    @Operation(
+            summary = "Complete a resumable upload",
+            description = "Finalizes a fully uploaded session and records the file for the current user"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<FileDTO> completeUploadSession(@PathVariable Long id, Mono<Authentication> authMono) {
+        return fileStorageService.completeUploadSession(id, authMono);
+    }
+
+    @DeleteMapping("/uploads/{id}")
+    @Operation(
+            summary = "Abort a resumable upload",
+            description = "Aborts the resumable upload session and discards its uploaded parts"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<Void> abortUploadSession(@PathVariable Long id, Mono<Authentication> authMono) {
+        return fileStorageService.abortUploadSession(id, authMono);
+    }
+
+    @GetMapping("/download-zip")
+    @Operation(
+            summary = "Download several files as a ZIP archive",
+            description = "Streams a ZIP archive of the specified file IDs, or of all accessible files when no IDs are given"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> downloadZip(@RequestParam(required = false) List<Long> ids,
+                                                              Mono<Authentication> authMono) {
+        return fileStorageService.downloadZipByFileIdsAndAuth(ids, authMono);
+    }
+
+    @PostMapping("/presigned-upload")
+    @Operation(
+            summary = "Create a presigned upload URL",
+            description = "Returns a short-lived S3 PUT URL and an upload key for the file with the given SHA-256 checksum and size"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<PresignedUrlDTO> createPresignedUpload(@RequestBody PresignedUploadRequestDTO request,
+                                                       Mono<Authentication> authMono) {
+        return fileStorageService.createPresignedUpload(request, authMono);
+    }
+
+    @PostMapping("/presigned-upload/complete")
+    @Operation(
+            summary = "Complete a presigned upload",
+            description = "Records the file uploaded through the presigned URL issued with the given upload key"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<FileDTO> completePresignedUpload(@RequestBody PresignedUploadRequestDTO request,
+                                                 Mono<Authentication> authMono) {
+        return fileStorageService.completePresignedUpload(request, authMono);
+    }
+
+    @GetMapping("/presigned-download/{fileName}")
+    @Operation(
+            summary = "Get a presigned download URL by filename",
+            description = "Returns a short-lived S3 GET URL for the specified filename, or redirects to it"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<ResponseEntity<PresignedUrlDTO>> getPresignedDownloadByName(@PathVariable String fileName,
+                                                                            @RequestParam(defaultValue = "false") boolean redirect,
+                                                                            Mono<Authentication> authMono) {
+        return fileStorageService.getPresignedDownloadByFileNameAndAuth(fileName, redirect, authMono);
+    }
+
     @GetMapping("/download-flux/{fileName}")
     @Operation(
             summary = "Download a file from AWS S3 by filename",
-            description = "Downloads a file from AWS S3 with the specified filename"
+            description = "Downloads a file from AWS S3 with the specified filename, honouring Range and If-Range headers"
+    )
+    @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
+    public Mono<ResponseEntity<FileContentDTO>> downloadFileByName(@PathVariable String fileName,
+                                                                     @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                                                                     @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                     @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                                     Mono<Authentication> authMono) {
+        return fileStorageService.downloadFileFromStorageByFileNameAndAuth(fileName, range, ifRange, ifNoneMatch, acceptEncoding, authMono);
+    }
+
+    @RequestMapping(value = "/download-flux/{fileName}", method = RequestMethod.HEAD)
+    @Operation(
+            summary = "Get file headers by filename",
+            description = "Returns size, content type and ETag of the specified file without downloading it"
     )
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR', 'USER')")
-    public Mono<ResponseEntity<Resource>> downloadFileByName(@PathVariable String fileName, Mono<Authentication> authMono) {
-        return fileStorageService.downloadFileFromStorageByFileNameAndAuth(fileName, authMono);
+    public Mono<ResponseEntity<Void>> getFileHeadersByName(@PathVariable String fileName, Mono<Authentication> authMono) {
+        return fileStorageService.getFileHeadersByFileNameAndAuth(fileName, authMono);
     }
 }
\ No newline at end of file
@@ -7,13 +7,15 @@ import com.kasumov.WebfluxRestApp.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/v1/users")
@@ -21,6 +23,7 @@ import reactor.core.publisher.Mono;
 public class UserRestControllerV1 {
 
     private final UserService userService;
+    private final CursorPagination cursorPagination;
 
     @GetMapping("/{id}")
     @Operation(summary = "Find a user by ID", description = "Finds a user with the specified ID (if role USER access to own data only)")
@@ -35,8 +38,13 @@ public class UserRestControllerV1 {
     @GetMapping("/")
     @Operation(summary = "Find all users", description = "Finds all users")
     @PreAuthorize("hasAnyRole('ADMIN', 'MODERATOR')")
-    public Flux<UserDTO> getAllUsers() {
-        return userService.getAllUsers();
+    public Mono<CollectionModel<UserDTO>> getAllUsers(@RequestParam(defaultValue = "0") long cursor,
+                                                      @RequestParam(defaultValue = "${app.pagination.default-size}") int limit) {
+        int pageSize = cursorPagination.limit(limit);
+        return userService.getAllUsers(cursor, pageSize)
+                .collectList()
+                .flatMap(userDTOs -> cursorPagination.toCollectionModel(userDTOs, cursor, pageSize, UserDTO::getId, Mono::just,
+                        nextCursor -> methodOn(UserRestControllerV1.class).getAllUsers(nextCursor, pageSize)));
     }
 
     @PutMapping("/{id}")
@@ -11,9 +11,9 @@ public interface EventService {
 
     Mono<EventDTO> getEventByIdAndAuth(Long id, Mono<Authentication> authMono);
 
-    Flux<EventDTO> getAllEventsByAuth(Mono<Authentication> authMono);
+    Flux<EventDTO> getAllEventsByAuth(long cursor, int limit, Mono<Authentication> authMono);
 
-    Flux<EventDTO> getEventsByUserId(Long userId);
+    Flux<EventDTO> getEventsByUserId(Long userId, long cursor, int limit);
 
     Mono<Event> getEventByFileNameAndUserId(String fileName, Long userId);
 
@@ -11,9 +11,9 @@ public interface FileService {
 
     Mono<Boolean> existsByIdAndUserId(Long fileId, Long userId);
 
-    Flux<File> getAllFilesByAuth(Mono<Authentication> authMono);
+    Flux<File> getAllFilesByAuth(long cursor, int limit, Mono<Authentication> authMono);
 
-    Flux<File> getFilesByUserId(Long userId);
+    Flux<File> getFilesByUserId(Long userId, long cursor, int limit);
 
     Mono<File> updateFileById(Long id, File file);
 
@@ -1,15 +1,45 @@
 package com.kasumov.WebfluxRestApp.service;
 
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
 import com.kasumov.WebfluxRestApp.dto.FileDTO;
-import org.springframework.core.io.Resource;
+import com.kasumov.WebfluxRestApp.dto.PresignedUploadRequestDTO;
+import com.kasumov.WebfluxRestApp.dto.PresignedUrlDTO;
+import com.kasumov.WebfluxRestApp.dto.UploadSessionDTO;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 public interface FileStorageService {
 
     Mono<FileDTO> uploadUserFileToStorage(FilePart filePart, Mono<Authentication> authMono);
 
-    Mono<ResponseEntity<Resource>> downloadFileFromStorageByFileNameAndAuth(String fileName, Mono<Authentication> authMono);
+    Mono<ResponseEntity<FileContentDTO>> downloadFileFromStorageByFileNameAndAuth(String fileName, String range, String ifRange,
+                                                                                String ifNoneMatch, String acceptEncoding,
+                                                                                Mono<Authentication> authMono);
+
+    Mono<ResponseEntity<Void>> getFileHeadersByFileNameAndAuth(String fileName, Mono<Authentication> authMono);
+
+    Mono<ResponseEntity<Flux<DataBuffer>>> downloadZipByFileIdsAndAuth(List<Long> fileIds, Mono<Authentication> authMono);
+
+    Mono<UploadSessionDTO> createUploadSession(UploadSessionDTO request, Mono<Authentication> authMono);
+
+    Mono<UploadSessionDTO> getUploadSession(Long id, Mono<Authentication> authMono);
+
+    Mono<UploadSessionDTO> uploadChunk(Long id, long offset, Flux<DataBuffer> content, Mono<Authentication> authMono);
+
+    Mono<FileDTO> completeUploadSession(Long id, Mono<Authentication> authMono);
+
+    Mono<Void> abortUploadSession(Long id, Mono<Authentication> authMono);
+
+    Mono<PresignedUrlDTO> createPresignedUpload(PresignedUploadRequestDTO request, Mono<Authentication> authMono);
+
+    Mono<FileDTO> completePresignedUpload(PresignedUploadRequestDTO request, Mono<Authentication> authMono);
+
+    Mono<ResponseEntity<PresignedUrlDTO>> getPresignedDownloadByFileNameAndAuth(String fileName, boolean redirect,
+                                                                                Mono<Authentication> authMono);
 }
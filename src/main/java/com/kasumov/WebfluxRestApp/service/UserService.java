@@ -13,7 +13,7 @@ public interface UserService {
     Mono<UserEntity> getUserByUsername(String username);
     Mono<UserEntity> getUserById(Long id);
 
-    Flux<UserDTO> getAllUsers();
+    Flux<UserDTO> getAllUsers(long cursor, int limit);
 
     Mono<UserDTO> updateUserById(Long id, UserRequestDTO userUpdateRequestDTO);
 
@@ -0,0 +1,134 @@
+package com.kasumov.WebfluxRestApp.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+class AccessTracker {
+
+    private static final String UPDATE_ACCESS = "UPDATE file SET access_count = access_count + ?, " +
+            "last_accessed_at = GREATEST(COALESCE(last_accessed_at, ?), ?) WHERE id = ?";
+
+    @Value("${app.access-tracking.enabled}")
+    private boolean enabled;
+
+    @Value("${app.access-tracking.max-pending}")
+    private int maxPending;
+
+    @Value("${app.access-tracking.batch-size}")
+    private int batchSize;
+
+    private final DatabaseClient databaseClient;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Access> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private Counter flushedRows;
+
+    AccessTracker(DatabaseClient databaseClient, MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    private void init() {
+        flushedRows = meterRegistry.counter("file.access.flushed");
+        Gauge.builder("file.access.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    void record(Long fileId) {
+        if (!enabled || fileId == null) {
+            return;
+        }
+        pending.merge(fileId, new Access(1, LocalDateTime.now()), Access::merge);
+        if (pending.size() >= maxPending) {
+            flush().subscribe();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.access-tracking.flush-interval}")
+    public Mono<Void> flush() {
+        return Mono.defer(() -> {
+            if (pending.isEmpty() || !flushing.compareAndSet(false, true)) {
+                return Mono.empty();
+            }
+            Map<Long, Access> drained = drain();
+            return write(drained)
+                    .doOnSuccess(unused -> log.info("FLUSHED_FILE_ACCESSES: {}", drained.size()))
+                    .doOnError(error -> {
+                        log.error("ERROR_FLUSHING_FILE_ACCESSES: {}", error.getMessage());
+                        drained.forEach((fileId, access) -> pending.merge(fileId, access, Access::merge));
+                    })
+                    .onErrorResume(error -> Mono.empty())
+                    .doFinally(signal -> flushing.set(false));
+        });
+    }
+
+    private Mono<Void> write(Map<Long, Access> accesses) {
+        return Flux.fromIterable(accesses.entrySet())
+                .buffer(batchSize)
+                .concatMap(batch -> databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(UPDATE_ACCESS);
+                    for (int i = 0; i < batch.size(); i++) {
+                        Map.Entry<Long, Access> entry = batch.get(i);
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        statement.bind(0, entry.getValue().count())
+                                .bind(1, entry.getValue().lastAccess())
+                                .bind(2, entry.getValue().lastAccess())
+                                .bind(3, entry.getKey());
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                }))
+                .doOnNext(flushedRows::increment)
+                .then();
+    }
+
+    @PreDestroy
+    private void destroy() {
+        flush().block(Duration.ofSeconds(10));
+    }
+
+    private Map<Long, Access> drain() {
+        Map<Long, Access> drained = new HashMap<>();
+        Iterator<Long> iterator = pending.keySet().iterator();
+        while (iterator.hasNext()) {
+            Long fileId = iterator.next();
+            Access access = pending.remove(fileId);
+            if (access != null) {
+                drained.put(fileId, access);
+            }
+        }
+        return drained;
+    }
+
+    private record Access(long count, LocalDateTime lastAccess) {
+
+        private Access merge(Access other) {
+            return new Access(count + other.count,
+                    lastAccess.isAfter(other.lastAccess) ? lastAccess : other.lastAccess);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.kasumov.WebfluxRestApp.service.impl;
+
+import com.kasumov.WebfluxRestApp.model.UserRole;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+class BandwidthShaper {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    @Value("${app.storage.bandwidth.enabled}")
+    private boolean enabled;
+
+    @Value("${app.storage.bandwidth.global-rate}")
+    private DataSize globalRate;
+
+    @Value("${app.storage.bandwidth.burst}")
+    private Duration burst;
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, UserBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<UserRole, Long> roleRates = new EnumMap<>(UserRole.class);
+
+    private TokenBucket globalBucket;
+    private Counter shapedBytes;
+    private Timer pacingDelay;
+
+    BandwidthShaper(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    private void init() {
+        Binder.get(environment)
+                .bind("app.storage.bandwidth.roles", Bindable.mapOf(UserRole.class, DataSize.class))
+                .orElse(Collections.emptyMap())
+                .forEach((role, rate) -> roleRates.put(role, rate.toBytes()));
+        globalBucket = new TokenBucket(globalRate.toBytes(), burst);
+        shapedBytes = meterRegistry.counter("file.transfer.shaped.bytes");
+        pacingDelay = meterRegistry.timer("file.transfer.pacing.delay");
+        log.info("BANDWIDTH_SHAPING: {} global {}/s, roles {}", enabled ? "enabled" : "disabled", globalRate, roleRates);
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    Flux<DataBuffer> shape(Flux<DataBuffer> content, Long userId, Collection<? extends GrantedAuthority> authorities) {
+        if (!enabled) {
+            return content;
+        }
+        long userRate = userId != null ? rateOf(authorities) : 0;
+        return Flux.defer(() -> {
+            UserBucket userBucket = userRate > 0 ? retain(userId, userRate) : null;
+            Flux<DataBuffer> paced = content
+                    .concatMap(dataBuffer -> {
+                        long bytes = dataBuffer.readableByteCount();
+                        long delayNanos = globalBucket.reserve(bytes);
+                        if (userBucket != null) {
+                            delayNanos = Math.max(delayNanos, userBucket.bucket.reserve(bytes));
+                        }
+                        shapedBytes.increment(bytes);
+                        if (delayNanos <= 0) {
+                            return Mono.just(dataBuffer);
+                        }
+                        Duration delay = Duration.ofNanos(delayNanos);
+                        pacingDelay.record(delay);
+                        return Mono.just(dataBuffer).delayElement(delay);
+                    }, 1)
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+            return userBucket != null ? paced.doFinally(signal -> release(userId, userBucket)) : paced;
+        });
+    }
+
+    private long rateOf(Collection<? extends GrantedAuthority> authorities) {
+        long rate = 0;
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            if (name == null || !name.startsWith(ROLE_PREFIX)) {
+                continue;
+            }
+            try {
+                Long roleRate = roleRates.get(UserRole.valueOf(name.substring(ROLE_PREFIX.length())));
+                if (roleRate == null || roleRate <= 0) {
+                    return 0;
+                }
+                rate = Math.max(rate, roleRate);
+            } catch (IllegalArgumentException e) {
+                log.warn("UNKNOWN_ROLE_FOR_BANDWIDTH_SHAPING: {}", name);
+            }
+        }
+        return rate;
+    }
+
+    private UserBucket retain(Long userId, long rate) {
+        return userBuckets.compute(userId, (id, existing) -> {
+            UserBucket userBucket = existing != null && existing.bucket.rate == rate
+                    ? existing
+                    : new UserBucket(new TokenBucket(rate, burst));
+            userBucket.streams++;
+            return userBucket;
+        });
+    }
+
+    private void release(Long userId, UserBucket userBucket) {
+        userBuckets.computeIfPresent(userId, (id, existing) -> {
+            if (existing != userBucket) {
+                return existing;
+            }
+            return --existing.streams > 0 ? existing : null;
+        });
+    }
+
+    private static final class UserBucket {
+        private final TokenBucket bucket;
+        private int streams;
+
+        private UserBucket(TokenBucket bucket) {
+            this.bucket = bucket;
+        }
+    }
+
+    private static final class TokenBucket {
+        private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+        private final long rate;
+        private final double capacity;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(long rate, Duration burst) {
+            this.rate = rate;
+            this.capacity = rate * (burst.toNanos() / (double) NANOS_PER_SECOND);
+            this.tokens = capacity;
+        }
+
+        private synchronized long reserve(long bytes) {
+            if (rate <= 0) {
+                return 0;
+            }
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * (rate / (double) NANOS_PER_SECOND));
+            refilledAt = now;
+            tokens -= bytes;
+            return tokens >= 0 ? 0 : (long) (-tokens / rate * NANOS_PER_SECOND);
+        }
+    }
+}
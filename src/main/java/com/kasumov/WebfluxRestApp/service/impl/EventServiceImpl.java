@@ -49,39 +49,36 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    public Flux<EventDTO> getAllEventsByAuth(Mono<Authentication> authMono) {
-        log.info("GetAllEventsByAuth");
+    public Flux<EventDTO> getAllEventsByAuth(long cursor, int limit, Mono<Authentication> authMono) {
+        log.info("GetAllEventsByAuth: {}, {}", cursor, limit);
         return authMono
                 .flatMapMany(authentication -> {
                     CustomPrincipal principal = (CustomPrincipal) authentication.getPrincipal();
                     return isAdminOrModerator(Mono.just(authentication))
                             .flatMapMany(isAdminOrModerator -> {
                                 if (isAdminOrModerator) {
-                                    return eventRepository.findAllActive();
+                                    return eventRepository.findActivePageWithFile(cursor, limit);
                                 } else {
-                                    return eventRepository.findAllActiveByUserId(principal.getId());
+                                    return eventRepository.findActivePageWithFileByUserId(principal.getId(), cursor, limit);
                                 }
                             })
-                            .flatMap(event -> fileRepository.findActiveById(event.getFileId())
-                                    .map(file -> eventMapper.map(event, file)));
+                            .map(event -> eventMapper.map(event, event.getFile()));
                 })
                 .doOnError(error -> log.error(error.getMessage()));
     }
 
     @Override
-    public Flux<EventDTO> getEventsByUserId(Long userId) {
-        log.info("GetEventsByUserId: {}", userId);
-        return eventRepository.findAllActiveByUserId(userId)
-                .flatMap(event -> fileRepository.findActiveById(event.getFileId())
-                        .map(file -> eventMapper.map(event, file)))
+    public Flux<EventDTO> getEventsByUserId(Long userId, long cursor, int limit) {
+        log.info("GetEventsByUserId: {}, {}, {}", userId, cursor, limit);
+        return eventRepository.findActivePageWithFileByUserId(userId, cursor, limit)
+                .map(event -> eventMapper.map(event, event.getFile()))
                 .doOnError(error -> log.error(error.getMessage()));
     }
 
     @Override
     public Mono<Event> getEventByFileNameAndUserId(String fileName, Long userId) {
         log.info("GetEventByFileNameAndUserId: {}, {}", fileName, userId);
-        return fileRepository.getIdByFileName(fileName)
-                .flatMap(fileId -> eventRepository.findActiveByFileIdAndUserId(fileId, userId))
+        return eventRepository.findActiveByFileNameAndUserId(fileName, userId)
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Event not found")));
     }
 
@@ -59,16 +59,16 @@ public class FileServiceImpl implements FileService {
     }
 
     @Override
-    public Flux<File> getAllFilesByAuth(Mono<Authentication> authMono) {
-        log.info("GetAllFilesByAuth:");
+    public Flux<File> getAllFilesByAuth(long cursor, int limit, Mono<Authentication> authMono) {
+        log.info("GetAllFilesByAuth: {}, {}", cursor, limit);
         return authMono.flatMapMany(authentication -> {
                     CustomPrincipal principal = (CustomPrincipal) authentication.getPrincipal();
                     return isAdminOrModerator(Mono.just(authentication))
                             .flatMapMany(isAdminOrModerator -> {
                                 if (isAdminOrModerator) {
-                                    return fileRepository.findAllActive();
+                                    return fileRepository.findActivePage(cursor, limit);
                                 } else {
-                                    return fileRepository.findAllActiveByUserId(principal.getId());
+                                    return fileRepository.findActivePageByUserId(principal.getId(), cursor, limit);
                                 }
                             });
                 })
@@ -77,9 +77,9 @@ public class FileServiceImpl implements FileService {
     }
 
     @Override
-    public Flux<File> getFilesByUserId(Long userId) {
-        log.info("GetFilesByUserId: {}", userId);
-        return fileRepository.findAllActiveByUserId(userId)
+    public Flux<File> getFilesByUserId(Long userId, long cursor, int limit) {
+        log.info("GetFilesByUserId: {}, {}, {}", userId, cursor, limit);
+        return fileRepository.findActivePageByUserId(userId, cursor, limit)
                 .doOnComplete(() -> log.info("FINISHED_SUCCESSFULLY"))
                 .doOnError(error -> log.error(error.getMessage()));
     }
@@ -92,7 +92,9 @@ public class FileServiceImpl implements FileService {
                         HttpStatus.NOT_FOUND,
                         String.format(String.valueOf(id)))))
                 .flatMap(foundFile -> {
-                    foundFile.setLocation(file.getLocation());
+                    if (file.getLocation() != null) {
+                        foundFile.setLocation(file.getLocation());
+                    }
                     return fileRepository.save(foundFile);
                 })
                 .doOnSuccess(aVoid -> log.info("SUCCESSFULLY_WITH_ID", id))
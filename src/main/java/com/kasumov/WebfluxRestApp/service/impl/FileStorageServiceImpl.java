@@ -1,35 +1,62 @@
 package com.kasumov.WebfluxRestApp.service.impl;
 
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
 import com.kasumov.WebfluxRestApp.dto.FileDTO;
+import com.kasumov.WebfluxRestApp.dto.PresignedUploadRequestDTO;
+import com.kasumov.WebfluxRestApp.dto.PresignedUrlDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredFileDTO;
+import com.kasumov.WebfluxRestApp.dto.UploadSessionDTO;
+import com.kasumov.WebfluxRestApp.dto.UploadedPartDTO;
 import com.kasumov.WebfluxRestApp.model.Event;
 import com.kasumov.WebfluxRestApp.model.File;
+import com.kasumov.WebfluxRestApp.model.Status;
+import com.kasumov.WebfluxRestApp.model.StorageCodec;
+import com.kasumov.WebfluxRestApp.model.UploadSession;
 import com.kasumov.WebfluxRestApp.model.UserRole;
 import com.kasumov.WebfluxRestApp.repository.EventRepository;
 import com.kasumov.WebfluxRestApp.repository.FileRepository;
 import com.kasumov.WebfluxRestApp.repository.FileStorageRepository;
+import com.kasumov.WebfluxRestApp.repository.UploadPartRepository;
+import com.kasumov.WebfluxRestApp.repository.UploadSessionRepository;
 import com.kasumov.WebfluxRestApp.security.CustomPrincipal;
-import com.kasumov.WebfluxRestApp.service.EventService;
+import com.kasumov.WebfluxRestApp.service.FileService;
 import com.kasumov.WebfluxRestApp.service.FileStorageService;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
 
+import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 
 @Slf4j
@@ -37,23 +64,57 @@ import java.util.Collections;
 @RequiredArgsConstructor
 public class FileStorageServiceImpl implements FileStorageService {
 
-    @Value("${app.s3.bucket-name}")
-    private String s3BucketName;
-
-    private String S3_FILE_LOCATION;
-
-    @PostConstruct
-    private void init() {
-        S3_FILE_LOCATION = String.format("https://%s.s3.amazonaws.com/", s3BucketName);
-    }
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-fA-F]{64}");
+    private static final Pattern UPLOAD_KEY = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
+    private static final String ZIP_FILE_NAME = "files.zip";
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long MAX_PARTS = 10_000;
+    private static final String STANDARD_STORAGE_CLASS = "STANDARD";
+    private static final int FILE_PAGE_SIZE = 1000;
 
     private final FileStorageRepository fileStorageRepository;
-    private final EventService eventService;
     private final FileRepository fileRepository;
     private final EventRepository eventRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final FileService fileService;
+    private final UploadSessionRepository uploadSessionRepository;
+    private final UploadPartRepository uploadPartRepository;
+    private final TransferLimiter transferLimiter;
+    private final BandwidthShaper bandwidthShaper;
+    private final AccessTracker accessTracker;
+
+    @Value("${app.s3.multipart.part-size}")
+    private DataSize multipartPartSize;
+
+    @Value("${app.storage.compression.codec}")
+    private StorageCodec compressionCodec;
+
+    @Value("${app.storage.compression.level}")
+    private int compressionLevel;
+
+    @Value("${app.storage.compression.probe-size}")
+    private DataSize compressionProbeSize;
+
+    @Value("${app.storage.compression.max-ratio}")
+    private double compressionMaxRatio;
+
+    @Value("${app.storage.zip.concurrency}")
+    private int zipConcurrency;
+
+    @Value("${app.storage.validation.enabled}")
+    private boolean validationEnabled;
+
+    @Value("${app.storage.validation.allowed-types}")
+    private List<MediaType> allowedTypes;
+
+    @Value("${app.storage.validation.max-size}")
+    private DataSize maxUploadSize;
+
+    @Value("${app.storage.validation.sniff-size}")
+    private DataSize sniffSize;
 
     @Override
-    @Transactional
     public Mono<FileDTO> uploadUserFileToStorage(FilePart filePart, Mono<Authentication> authMono) {
         log.info("UploadUserFileToStorage:");
         return authMono
@@ -63,27 +124,313 @@ public class FileStorageServiceImpl implements FileStorageService {
                 .flatMap(userContext -> {
                     long userId = userContext.userId();
                     String filename = filePart.filename();
-                    String location = S3_FILE_LOCATION + filename;
+                    String contentType = detectContentType(filePart);
 
-                    File file = File.builder()
-                            .location(location)
-                            .build();
+                    StorageCodecStream codecStream = new StorageCodecStream(compressionCodec, compressionLevel,
+                            compressionProbeSize.toBytes(), compressionMaxRatio);
+                    UploadValidationStream validationStream = validationEnabled
+                            ? new UploadValidationStream(allowedTypes, maxUploadSize.toBytes(), (int) sniffSize.toBytes())
+                            : null;
+                    Flux<DataBuffer> content = validationStream != null
+                            ? validationStream.validate(filePart.content())
+                            : filePart.content();
 
-                    return fileRepository.save(file)
-                            .flatMap(savedFile -> {
-                                Event event = Event.builder()
-                                        .userId(userId)
-                                        .fileId(savedFile.getId())
-                                        .build();
-
-                                return eventRepository.save(event);
-                            })
-                            .then(fileStorageRepository.uploadUserFileToStorage(filePart))
-                            .doOnSuccess(unused -> log.info("UPLOADED_SUCCESSFULLY_WITH_FILENAME_AND_USER_ID", filename, userId))
+                    return Mono.usingWhen(transferLimiter.acquire(userId),
+                                    permit -> fileStorageRepository.uploadUserFileToStorage(codecStream.encode(
+                                            bandwidthShaper.shape(content, userId, userContext.authorities()))),
+                                    permit -> Mono.fromRunnable(permit::release))
+                            .flatMap(storedFile -> saveFileAndEvent(userId, filename,
+                                    validationStream != null ? validationStream.resolveContentType(contentType) : contentType,
+                                    storedFile, codecStream.selectedCodec(), codecStream.originalSize()))
+                            .doOnSuccess(unused -> log.info("UPLOADED_SUCCESSFULLY_WITH_FILENAME_AND_USER_ID: {}, {}", filename, userId))
                             .doOnError(error -> log.error(filename, userId, error.getMessage()));
                 });
     }
 
+    @Override
+    public Mono<PresignedUrlDTO> createPresignedUpload(PresignedUploadRequestDTO request, Mono<Authentication> authMono) {
+        log.info("CreatePresignedUpload: {}", request.getFileName());
+        String uploadKey = UUID.randomUUID().toString();
+        return authMono
+                .flatMap(this::extractUserId)
+                .flatMap(userId -> validatePresignedUpload(request)
+                        .filter(checksum -> !exceedsMaxUploadSize(request.getSize()))
+                        .switchIfEmpty(Mono.error(this::uploadTooLarge))
+                        .flatMap(checksum -> fileStorageRepository.presignUpload(presignedUploadKey(userId, uploadKey),
+                                checksum, request.getSize(), request.getContentType())))
+                .map(presignedUrl -> presignedUrl.toBuilder()
+                        .uploadKey(uploadKey)
+                        .build())
+                .doOnError(error -> log.error("ERROR_CREATING_PRESIGNED_UPLOAD: {} {}", request.getFileName(), error.getMessage(), error));
+    }
+
+    @Override
+    public Mono<FileDTO> completePresignedUpload(PresignedUploadRequestDTO request, Mono<Authentication> authMono) {
+        log.info("CompletePresignedUpload: {}", request.getFileName());
+        return authMono
+                .flatMap(this::extractUserId)
+                .flatMap(userId -> validatePresignedUpload(request)
+                        .filter(checksum -> request.getUploadKey() != null && UPLOAD_KEY.matcher(request.getUploadKey()).matches())
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "upload_key is required")))
+                        .flatMap(checksum -> fileStorageRepository.completePresignedUpload(
+                                presignedUploadKey(userId, request.getUploadKey()), checksum, request.getSize()))
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "Uploaded object not found")))
+                        .flatMap(storedFile -> saveFileAndEvent(userId, request.getFileName(),
+                                request.getContentType() != null
+                                        ? request.getContentType()
+                                        : MediaTypeFactory.getMediaType(request.getFileName())
+                                        .orElse(MediaType.APPLICATION_OCTET_STREAM).toString(),
+                                storedFile, StorageCodec.NONE, storedFile.getSize())))
+                .doOnSuccess(unused -> log.info("COMPLETED_PRESIGNED_UPLOAD: {}", request.getFileName()))
+                .doOnError(error -> log.error("ERROR_COMPLETING_PRESIGNED_UPLOAD: {} {}", request.getFileName(), error.getMessage(), error));
+    }
+
+    @Override
+    public Mono<UploadSessionDTO> createUploadSession(UploadSessionDTO request, Mono<Authentication> authMono) {
+        log.info("CreateUploadSession: {}", request.getFileName());
+        if (request.getFileName() == null || request.getFileName().isBlank()
+                || request.getSize() == null || request.getSize() <= 0
+                || (request.getChecksum() != null && !SHA256_HEX.matcher(request.getChecksum()).matches())) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "file_name and a positive size are required, checksum must be a hex SHA-256"));
+        }
+        if (exceedsMaxUploadSize(request.getSize())) {
+            return Mono.error(uploadTooLarge());
+        }
+        long partSize = Math.max(Math.max(multipartPartSize.toBytes(), MIN_PART_SIZE),
+                (request.getSize() + MAX_PARTS - 1) / MAX_PARTS);
+        String uploadKey = UUID.randomUUID().toString();
+        return authMono
+                .flatMap(this::extractUserId)
+                .flatMap(userId -> fileStorageRepository.createResumableUpload(uploadKey)
+                        .flatMap(uploadId -> uploadSessionRepository.save(UploadSession.builder()
+                                .userId(userId)
+                                .fileName(request.getFileName())
+                                .contentType(request.getContentType())
+                                .checksum(request.getChecksum() != null ? request.getChecksum().toLowerCase() : null)
+                                .totalSize(request.getSize())
+                                .partSize(partSize)
+                                .uploadKey(uploadKey)
+                                .uploadId(uploadId)
+                                .committedOffset(0L)
+                                .createdAt(LocalDateTime.now())
+                                .status(Status.ACTIVE)
+                                .build())))
+                .map(FileStorageServiceImpl::toUploadSessionDTO)
+                .doOnSuccess(session -> log.info("CREATED_UPLOAD_SESSION: {}", session.getId()))
+                .doOnError(error -> log.error("ERROR_CREATING_UPLOAD_SESSION: {} {}", request.getFileName(), error.getMessage(), error));
+    }
+
+    @Override
+    public Mono<UploadSessionDTO> getUploadSession(Long id, Mono<Authentication> authMono) {
+        log.info("GetUploadSession: {}", id);
+        return findOwnedUploadSession(id, authMono)
+                .map(FileStorageServiceImpl::toUploadSessionDTO);
+    }
+
+    @Override
+    public Mono<UploadSessionDTO> uploadChunk(Long id, long offset, Flux<DataBuffer> content, Mono<Authentication> authMono) {
+        log.info("UploadChunk: {} at {}", id, offset);
+        return userContext(authMono)
+                .zipWith(findOwnedUploadSession(id, authMono))
+                .flatMap(tuple -> {
+                    UserContext userContext = tuple.getT1();
+                    UploadSession session = tuple.getT2();
+                    if (offset != session.getCommittedOffset()) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                                "Expected offset " + session.getCommittedOffset()));
+                    }
+                    return Mono.usingWhen(transferLimiter.acquire(userContext.userId()),
+                                    permit -> uploadPartRepository.findLastPartNumber(session.getId())
+                                            .flatMapMany(lastPartNumber -> fileStorageRepository.uploadResumableParts(
+                                                    session.getUploadKey(), session.getUploadId(), lastPartNumber + 1,
+                                                    session.getPartSize(), session.getTotalSize() - offset, session.getDigestState(),
+                                                    bandwidthShaper.shape(content, userContext.userId(), userContext.authorities())))
+                                            .concatMap(part -> uploadPartRepository.upsert(session.getId(), part.getPartNumber(), part.getETag(), part.getSize())
+                                                    .then(advanceCommittedOffset(session, part.getSize(), part.getDigestState())))
+                                            .then(Mono.fromCallable(() -> toUploadSessionDTO(session))),
+                                    permit -> Mono.fromRunnable(permit::release));
+                })
+                .onErrorMap(IllegalArgumentException.class, error -> new ResponseStatusException(HttpStatus.BAD_REQUEST, error.getMessage()))
+                .doOnSuccess(session -> log.info("COMMITTED_UPLOAD_OFFSET: {} at {}", id, session.getCommittedOffset()))
+                .doOnError(error -> log.error("ERROR_UPLOADING_CHUNK: {}", id, error));
+    }
+
+    @Override
+    public Mono<FileDTO> completeUploadSession(Long id, Mono<Authentication> authMono) {
+        log.info("CompleteUploadSession: {}", id);
+        return findOwnedUploadSession(id, authMono)
+                .flatMap(session -> {
+                    if (!session.getCommittedOffset().equals(session.getTotalSize())) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                                "Upload is incomplete at offset " + session.getCommittedOffset()));
+                    }
+                    return completeStoredObject(session)
+                            .flatMap(storedFile -> {
+                                Mono<Void> deleteSession = uploadSessionRepository.deleteById(session.getId());
+                                if (session.getChecksum() != null && !session.getChecksum().equals(storedFile.getChecksum())) {
+                                    return discardUnreferencedObject(storedFile)
+                                            .then(deleteSession)
+                                            .then(Mono.error(new ResponseStatusException(
+                                                    HttpStatus.UNPROCESSABLE_ENTITY, "Checksum mismatch")));
+                                }
+                                String contentType = session.getContentType() != null
+                                        ? session.getContentType()
+                                        : MediaTypeFactory.getMediaType(session.getFileName())
+                                        .orElse(MediaType.APPLICATION_OCTET_STREAM).toString();
+                                return saveFileAndEvent(session.getUserId(), session.getFileName(), contentType, storedFile,
+                                        StorageCodec.NONE, storedFile.getSize())
+                                        .flatMap(fileDTO -> deleteSession.thenReturn(fileDTO));
+                            });
+                })
+                .doOnSuccess(unused -> log.info("COMPLETED_UPLOAD_SESSION: {}", id))
+                .doOnError(error -> log.error("ERROR_COMPLETING_UPLOAD_SESSION: {}", id, error));
+    }
+
+    @Override
+    public Mono<Void> abortUploadSession(Long id, Mono<Authentication> authMono) {
+        log.info("AbortUploadSession: {}", id);
+        return findOwnedUploadSession(id, authMono)
+                .flatMap(session -> fileStorageRepository.abortResumableUpload(session.getUploadKey(), session.getUploadId())
+                        .then(uploadSessionRepository.deleteById(session.getId())))
+                .doOnSuccess(unused -> log.info("ABORTED_UPLOAD_SESSION: {}", id))
+                .doOnError(error -> log.error("ERROR_ABORTING_UPLOAD_SESSION: {} {}", id, error.getMessage(), error));
+    }
+
+    private Mono<StoredFileDTO> completeStoredObject(UploadSession session) {
+        if (session.getStoredKey() != null) {
+            return fileStorageRepository.findStoredFile(session.getStoredKey())
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.CONFLICT,
+                            "Completed upload object not found")));
+        }
+        return uploadPartRepository.findAllBySessionId(session.getId())
+                .map(part -> UploadedPartDTO.builder()
+                        .partNumber(part.getPartNumber())
+                        .eTag(part.getETag())
+                        .size(part.getSize())
+                        .build())
+                .collectList()
+                .flatMap(parts -> fileStorageRepository.completeResumableUpload(
+                        session.getUploadKey(), session.getUploadId(), parts, session.getDigestState()))
+                .flatMap(storedFile -> uploadSessionRepository.markStored(session.getId(), storedFile.getKey())
+                        .thenReturn(storedFile));
+    }
+
+    private Mono<Void> discardUnreferencedObject(StoredFileDTO storedFile) {
+        if (storedFile.isDeduplicated()) {
+            return Mono.empty();
+        }
+        return fileRepository.findActiveChecksumsIn(List.of(storedFile.getKey()))
+                .hasElements()
+                .flatMap(referenced -> {
+                    if (referenced) {
+                        return Mono.empty();
+                    }
+                    log.warn("DISCARDING_MISMATCHED_UPLOAD: {}", storedFile.getKey());
+                    return fileStorageRepository.deleteStoredObject(storedFile.getKey());
+                });
+    }
+
+    private Mono<UploadSession> findOwnedUploadSession(Long id, Mono<Authentication> authMono) {
+        return authMono
+                .flatMap(this::extractUserId)
+                .flatMap(userId -> uploadSessionRepository.findActiveById(id)
+                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, String.valueOf(id))))
+                        .flatMap(session -> session.getUserId().equals(userId)
+                                ? Mono.just(session)
+                                : Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN))));
+    }
+
+    private Mono<Void> advanceCommittedOffset(UploadSession session, long size, byte[] digestState) {
+        long expectedOffset = session.getCommittedOffset();
+        return uploadSessionRepository.advanceCommittedOffset(session.getId(), expectedOffset, expectedOffset + size, digestState)
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "Concurrent chunk upload"));
+                    }
+                    session.setCommittedOffset(expectedOffset + size);
+                    session.setDigestState(digestState);
+                    return Mono.empty();
+                });
+    }
+
+    private static UploadSessionDTO toUploadSessionDTO(UploadSession session) {
+        return UploadSessionDTO.builder()
+                .id(session.getId())
+                .fileName(session.getFileName())
+                .contentType(session.getContentType())
+                .checksum(session.getChecksum())
+                .size(session.getTotalSize())
+                .partSize(session.getPartSize())
+                .committedOffset(session.getCommittedOffset())
+                .build();
+    }
+
+    private boolean exceedsMaxUploadSize(long size) {
+        return validationEnabled && size > maxUploadSize.toBytes();
+    }
+
+    private ResponseStatusException uploadTooLarge() {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "File exceeds the maximum size of " + maxUploadSize.toBytes() + " bytes");
+    }
+
+    private static Mono<String> validatePresignedUpload(PresignedUploadRequestDTO request) {
+        String checksum = request.getChecksum();
+        if (request.getFileName() == null || request.getFileName().isBlank()
+                || request.getSize() == null || request.getSize() < 0
+                || checksum == null || !SHA256_HEX.matcher(checksum).matches()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "file_name, size and a hex SHA-256 checksum are required"));
+        }
+        return Mono.just(checksum.toLowerCase());
+    }
+
+    private static String presignedUploadKey(Long userId, String uploadKey) {
+        return "presigned/" + userId + "/" + uploadKey;
+    }
+
+    private Mono<FileDTO> saveFileAndEvent(Long userId, String fileName, String contentType, StoredFileDTO storedFile,
+                                           StorageCodec codec, long size) {
+        File file = File.builder()
+                .fileName(fileName)
+                .location(storedFile.getLocation())
+                .objectKey(storedFile.getKey())
+                .size(size)
+                .storedSize(storedFile.getSize())
+                .codec(codec)
+                .contentType(contentType)
+                .checksum(storedFile.getChecksum())
+                .eTag(storedFile.getETag())
+                .lastAccessedAt(LocalDateTime.now())
+                .accessCount(0L)
+                .storageClass(STANDARD_STORAGE_CLASS)
+                .status(Status.ACTIVE)
+                .build();
+
+        return fileRepository.save(file)
+                .flatMap(savedFile -> {
+                    Event event = Event.builder()
+                            .userId(userId)
+                            .fileId(savedFile.getId())
+                            .status(Status.ACTIVE)
+                            .build();
+
+                    return eventRepository.save(event);
+                })
+                .as(transactionalOperator::transactional)
+                .thenReturn(new FileDTO(fileName, LocalDateTime.now()));
+    }
+
+    private static String detectContentType(FilePart filePart) {
+        MediaType contentType = filePart.headers().getContentType();
+        if (contentType == null || MediaType.APPLICATION_OCTET_STREAM.equalsTypeAndSubtype(contentType)) {
+            contentType = MediaTypeFactory.getMediaType(filePart.filename())
+                    .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        }
+        return contentType.toString();
+    }
+
     private Mono<Long> extractUserId(Authentication authentication) {
         if (authentication.getPrincipal() instanceof CustomPrincipal customPrincipal) {
             return Mono.just(customPrincipal.getId());
@@ -97,39 +444,305 @@ public class FileStorageServiceImpl implements FileStorageService {
     }
 
     @Override
-    public Mono<ResponseEntity<Resource>> downloadFileFromStorageByFileNameAndAuth(String fileName, Mono<Authentication> authMono) {
+    public Mono<ResponseEntity<FileContentDTO>> downloadFileFromStorageByFileNameAndAuth(String fileName, String range, String ifRange,
+                                                                                        String ifNoneMatch, String acceptEncoding,
+                                                                                        Mono<Authentication> authMono) {
         log.info("DownloadFileFromStorageByFileName: {}", fileName);
-        return authMono
-                .flatMap(auth -> extractUserId(auth).map(userId -> new UserContext(userId, auth.getAuthorities())))
-                .defaultIfEmpty(new UserContext(null, Collections.emptyList()))
-                .flatMap(userContext -> checkUserAccessToFile(fileName, userContext.userId, userContext.authorities))
-                .flatMap(hasAccess -> {
-                    if (!hasAccess) {
-                        return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN));
+        return userContext(authMono)
+                .flatMap(userContext -> findAccessibleFile(fileName, userContext.userId(), userContext.authorities())
+                        .flatMap(file -> {
+                            if (file.getETag() != null && matchesETag(ifNoneMatch, file.getETag())) {
+                                log.info("NOT_MODIFIED: {}", fileName);
+                                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                        .headers(fileHeaders(fileName, file))
+                                        .<FileContentDTO>build());
+                            }
+                            Mono<ResponseEntity<FileContentDTO>> download = codecOf(file) != StorageCodec.NONE
+                                    ? downloadEncodedFile(fileName, file, acceptEncoding)
+                                    : downloadFile(fileName, file, parseRange(range), ifRange);
+                            return withTransferPermit(userContext.userId(),
+                                    permit -> download.map(response -> attachPermit(response, userContext, permit)))
+                                    .doOnSuccess(response -> accessTracker.record(file.getId()));
+                        }))
+                .onErrorMap(this::handleDownloadError)
+                .doOnSuccess(unused -> log.info("DOWNLOADED_SUCCESSFULLY_WITH_FILENAME: {}", fileName))
+                .doOnError(error -> log.error("ERROR_DOWNLOADING_FILE: {} {}", fileName, error.getMessage(), error));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Void>> getFileHeadersByFileNameAndAuth(String fileName, Mono<Authentication> authMono) {
+        log.info("GetFileHeadersByFileName: {}", fileName);
+        return findAccessibleFile(fileName, authMono)
+                .flatMap(file -> {
+                    if (file.getSize() != null) {
+                        return Mono.just(file);
                     }
-                    return downloadFile(fileName);
+                    return fileStorageRepository.getFileMetadata(storageKey(file))
+                            .map(metadata -> file.toBuilder()
+                                    .size(metadata.getContentLength())
+                                    .eTag(metadata.getETag())
+                                    .build());
                 })
+                .map(file -> ResponseEntity.ok()
+                        .headers(fileHeaders(fileName, file))
+                        .contentLength(file.getSize())
+                        .<Void>build())
                 .onErrorMap(this::handleDownloadError)
-                .doOnSuccess(unused -> log.info("DOWNLOADED_SUCCESSFULLY_WITH_FILENAME", fileName))
-                .doOnError(error -> log.error(fileName, error.getMessage()));
+                .doOnError(error -> log.error("ERROR_READING_FILE_HEADERS: {} {}", fileName, error.getMessage(), error));
     }
 
-    private Mono<Boolean> checkUserAccessToFile(String fileName, Long userId, Collection<? extends GrantedAuthority> authorities) {
-        if (authorities.stream()
-                .anyMatch(a -> a.getAuthority().equals("ROLE_" + UserRole.USER.name()))) {
-            return eventService.getEventByFileNameAndUserId(fileName, userId)
-                    .map(e -> true)
-                    .defaultIfEmpty(false);
+    @Override
+    public Mono<ResponseEntity<PresignedUrlDTO>> getPresignedDownloadByFileNameAndAuth(String fileName, boolean redirect,
+                                                                                       Mono<Authentication> authMono) {
+        log.info("GetPresignedDownloadByFileName: {}", fileName);
+        return findAccessibleFile(fileName, authMono)
+                .flatMap(file -> fileStorageRepository.presignDownload(storageKey(file), fileName,
+                        file.getContentType() != null ? file.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE,
+                        codecOf(file).getContentEncoding()))
+                .map(presignedUrl -> redirect
+                        ? ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                        .location(URI.create(presignedUrl.getUrl()))
+                        .<PresignedUrlDTO>build()
+                        : ResponseEntity.ok(presignedUrl))
+                .doOnError(error -> log.error("ERROR_PRESIGNING_DOWNLOAD: {} {}", fileName, error.getMessage(), error));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<DataBuffer>>> downloadZipByFileIdsAndAuth(List<Long> fileIds, Mono<Authentication> authMono) {
+        log.info("DownloadZipByFileIds: {}", fileIds);
+        return userContext(authMono)
+                .flatMap(userContext -> findZipFiles(fileIds, userContext, authMono).flatMap(files -> {
+                    AtomicInteger fileCount = new AtomicInteger();
+                    Flux<ZipStreamWriter.Entry> entries = files
+                            .doOnNext(file -> fileCount.incrementAndGet())
+                            .flatMapSequential(file -> fileStorageRepository.downloadFileFromStorage(storageKey(file), null, null)
+                                    .doOnSuccess(fileContent -> accessTracker.record(file.getId()))
+                                    .map(fileContent -> codecOf(file) == StorageCodec.NONE
+                                            ? new ZipStreamWriter.Entry(file.getFileName(),
+                                            fileContent.getContentLength(), fileContent.getContent())
+                                            : new ZipStreamWriter.Entry(file.getFileName(), file.getSize(),
+                                            StorageCodecStream.decode(fileContent.getContent(), codecOf(file)))), zipConcurrency)
+                            .doOnDiscard(ZipStreamWriter.Entry.class, entry -> entry.content()
+                                    .subscribe(DataBufferUtils::release)
+                                    .dispose());
+                    return withTransferPermit(userContext.userId(), permit -> Mono.just(ResponseEntity.ok()
+                            .contentType(APPLICATION_ZIP)
+                            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + ZIP_FILE_NAME + "\"")
+                            .body(bandwidthShaper.shape(ZipStreamWriter.write(entries, DefaultDataBufferFactory.sharedInstance),
+                                            userContext.userId(), userContext.authorities())
+                                    .doOnComplete(() -> log.info("ZIP_STREAMED_SUCCESSFULLY: {} files", fileCount.get()))
+                                    .doOnError(error -> log.error("ERROR_STREAMING_ZIP: {}", error.getMessage()))
+                                    .doFinally(signal -> permit.release()))));
+                }))
+                .doOnError(error -> log.error("ERROR_DOWNLOADING_ZIP: {} {}", fileIds, error.getMessage(), error));
+    }
+
+    private Mono<Flux<File>> findZipFiles(List<Long> fileIds, UserContext userContext, Mono<Authentication> authMono) {
+        if (fileIds == null) {
+            return fileService.getAllFilesByAuth(0, 1, authMono)
+                    .hasElements()
+                    .flatMap(found -> found ? Mono.just(findAllAccessibleFiles(authMono)) : Mono.error(this::filesNotFound));
+        }
+        Set<Long> ids = new HashSet<>(fileIds);
+        if (ids.isEmpty()) {
+            return Mono.error(filesNotFound());
         }
-        return Mono.just(true);
+        Mono<Set<Long>> accessibleIds = isUser(userContext.authorities())
+                ? eventRepository.findActiveFileIdsByUserIdAndFileIdIn(userContext.userId(), ids).collect(Collectors.toSet())
+                : Mono.just(ids);
+        return fileRepository.findAllActiveByIdIn(ids)
+                .collectList()
+                .zipWith(accessibleIds, (files, accessible) -> files.stream()
+                        .filter(file -> accessible.contains(file.getId()))
+                        .toList())
+                .flatMap(files -> files.size() < ids.size()
+                        ? Mono.error(filesNotFound())
+                        : Mono.just(Flux.fromIterable(files)));
+    }
+
+    private Flux<File> findAllAccessibleFiles(Mono<Authentication> authMono) {
+        return fileService.getAllFilesByAuth(0, FILE_PAGE_SIZE, authMono)
+                .collectList()
+                .expand(files -> files.size() < FILE_PAGE_SIZE
+                        ? Mono.empty()
+                        : fileService.getAllFilesByAuth(files.get(files.size() - 1).getId(), FILE_PAGE_SIZE, authMono)
+                        .collectList())
+                .concatMapIterable(Function.identity(), 1);
     }
 
-    private Mono<ResponseEntity<Resource>> downloadFile(String fileName) {
-        return fileStorageRepository.downloadFileFromStorage(fileName)
-                .map(responseEntity -> ResponseEntity.ok()
-                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                        .body(responseEntity.getBody()));
+    private ResponseStatusException filesNotFound() {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Files not found");
+    }
+
+    private Mono<File> findAccessibleFile(String fileName, Mono<Authentication> authMono) {
+        return userContext(authMono)
+                .flatMap(userContext -> findAccessibleFile(fileName, userContext.userId, userContext.authorities));
+    }
+
+    private Mono<UserContext> userContext(Mono<Authentication> authMono) {
+        return authMono
+                .flatMap(auth -> extractUserId(auth).map(userId -> new UserContext(userId, auth.getAuthorities())))
+                .defaultIfEmpty(new UserContext(null, Collections.emptyList()));
+    }
+
+    private Mono<File> findAccessibleFile(String fileName, Long userId, Collection<? extends GrantedAuthority> authorities) {
+        if (isUser(authorities)) {
+            return fileRepository.findLatestActiveByFileNameAndUserId(fileName, userId)
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN)));
+        }
+        return fileRepository.findLatestActiveByFileName(fileName)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, fileName)));
+    }
+
+    private static boolean isUser(Collection<? extends GrantedAuthority> authorities) {
+        return authorities.stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_" + UserRole.USER.name()));
+    }
+
+    private static String storageKey(File file) {
+        return file.getObjectKey();
+    }
+
+    private <T> Mono<ResponseEntity<T>> withTransferPermit(Long userId,
+                                                           Function<TransferLimiter.Permit, Mono<ResponseEntity<T>>> response) {
+        return Mono.usingWhen(transferLimiter.acquire(userId),
+                response,
+                permit -> Mono.empty(),
+                (permit, error) -> Mono.fromRunnable(permit::release),
+                permit -> Mono.fromRunnable(permit::release));
+    }
+
+    private ResponseEntity<FileContentDTO> attachPermit(ResponseEntity<FileContentDTO> response, UserContext userContext,
+                                                        TransferLimiter.Permit permit) {
+        FileContentDTO fileContent = response.getBody();
+        if (fileContent == null) {
+            permit.release();
+            return response;
+        }
+        boolean shaped = bandwidthShaper.isEnabled();
+        Flux<DataBuffer> content = shaped
+                ? bandwidthShaper.shape(fileContent.getContent(), userContext.userId(), userContext.authorities())
+                : fileContent.getContent();
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .body(fileContent.toBuilder()
+                        .path(shaped ? null : fileContent.getPath())
+                        .position(shaped ? null : fileContent.getPosition())
+                        .content(content.doFinally(signal -> permit.release()))
+                        .onRelease(permit::release)
+                        .build());
+    }
+
+    private Mono<ResponseEntity<FileContentDTO>> downloadFile(String fileName, File file, HttpRange range, String ifRange) {
+        return fileStorageRepository.downloadFileFromStorage(storageKey(file), range, ifRange)
+                .map(fileContent -> ResponseEntity
+                        .status(fileContent.getContentRange() != null ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                        .headers(fileHeaders(fileName, file))
+                        .contentLength(fileContent.getContentLength())
+                        .eTag(fileContent.getETag())
+                        .headers(headers -> {
+                            if (fileContent.getContentRange() != null) {
+                                headers.set(HttpHeaders.CONTENT_RANGE, fileContent.getContentRange());
+                            }
+                        })
+                        .body(fileContent));
+    }
+
+    private Mono<ResponseEntity<FileContentDTO>> downloadEncodedFile(String fileName, File file, String acceptEncoding) {
+        StorageCodec codec = codecOf(file);
+        boolean passThrough = acceptsEncoding(acceptEncoding, codec.getContentEncoding());
+        return fileStorageRepository.downloadFileFromStorage(storageKey(file), null, null)
+                .map(fileContent -> ResponseEntity.ok()
+                        .headers(fileHeaders(fileName, file))
+                        .headers(headers -> {
+                            headers.set(HttpHeaders.ACCEPT_RANGES, "none");
+                            headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                            if (passThrough) {
+                                headers.set(HttpHeaders.CONTENT_ENCODING, codec.getContentEncoding());
+                                headers.setContentLength(fileContent.getContentLength());
+                                headers.setETag(fileContent.getETag());
+                            } else {
+                                headers.setContentLength(file.getSize());
+                                headers.setETag("W/" + fileContent.getETag());
+                            }
+                        })
+                        .body(passThrough
+                                ? fileContent
+                                : fileContent.toBuilder()
+                                .contentLength(file.getSize())
+                                .path(null)
+                                .position(null)
+                                .content(StorageCodecStream.decode(fileContent.getContent(), codec))
+                                .build()));
+    }
+
+    private static StorageCodec codecOf(File file) {
+        return file.getCodec() != null ? file.getCodec() : StorageCodec.NONE;
+    }
+
+    private static boolean acceptsEncoding(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parameters = candidate.split(";");
+            String coding = parameters[0].trim();
+            if (!coding.equalsIgnoreCase(encoding) && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static HttpHeaders fileHeaders(String fileName, File file) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(file.getContentType() != null
+                ? MediaType.parseMediaType(file.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM);
+        if (file.getETag() != null) {
+            headers.setETag(file.getETag());
+        }
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"");
+        return headers;
+    }
+
+    private static boolean matchesETag(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || (tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private HttpRange parseRange(String range) {
+        if (range == null) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            log.warn("IGNORING_INVALID_RANGE: {}", range);
+            return null;
+        }
     }
 
     private Throwable handleDownloadError(Throwable error) {
@@ -137,6 +750,10 @@ public class FileStorageServiceImpl implements FileStorageService {
             log.error(error.getMessage(), error);
             return new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
+        if (error instanceof S3Exception s3Exception
+                && s3Exception.statusCode() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+            return new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
         return error;
     }
 }
@@ -0,0 +1,431 @@
+package com.kasumov.WebfluxRestApp.service.impl;
+
+import com.github.luben.zstd.EndDirective;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.kasumov.WebfluxRestApp.model.StorageCodec;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.SynchronousSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+final class StorageCodecStream {
+
+    private static final int BUFFER_SIZE = 128 * 1024;
+
+    private final StorageCodec codec;
+    private final int level;
+    private final long probeSize;
+    private final double maxRatio;
+    private final AtomicLong originalSize = new AtomicLong();
+    private volatile StorageCodec selectedCodec = StorageCodec.NONE;
+
+    StorageCodecStream(StorageCodec codec, int level, long probeSize, double maxRatio) {
+        this.codec = codec;
+        this.level = level;
+        this.probeSize = probeSize;
+        this.maxRatio = maxRatio;
+    }
+
+    Flux<DataBuffer> encode(Flux<DataBuffer> content) {
+        Flux<DataBuffer> counted = content.doOnNext(dataBuffer -> originalSize.addAndGet(dataBuffer.readableByteCount()));
+        if (codec == StorageCodec.NONE) {
+            return counted;
+        }
+        return Flux.defer(() -> {
+                    AtomicLong buffered = new AtomicLong();
+                    return counted.publishOn(Schedulers.boundedElastic())
+                            .bufferUntil(dataBuffer -> buffered.addAndGet(dataBuffer.readableByteCount()) >= probeSize);
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .switchOnFirst((signal, chunks) -> {
+                    Flux<DataBuffer> dataBuffers = chunks.concatMapIterable(Function.identity());
+                    if (!signal.hasValue() || !compresses(signal.get())) {
+                        return dataBuffers;
+                    }
+                    selectedCodec = codec;
+                    return encode(dataBuffers, codec, level);
+                });
+    }
+
+    StorageCodec selectedCodec() {
+        return selectedCodec;
+    }
+
+    long originalSize() {
+        return originalSize.get();
+    }
+
+    private boolean compresses(List<DataBuffer> probe) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (DataBuffer dataBuffer : probe) {
+            byte[] bytes = new byte[dataBuffer.readableByteCount()];
+            dataBuffer.toByteBuffer(dataBuffer.readPosition(), ByteBuffer.wrap(bytes), 0, bytes.length);
+            out.writeBytes(bytes);
+        }
+        byte[] sample = out.toByteArray();
+        if (sample.length == 0) {
+            return false;
+        }
+        long compressedLength = switch (codec) {
+            case GZIP -> deflatedLength(sample);
+            case ZSTD -> Zstd.compress(sample, level).length;
+            case NONE -> sample.length;
+        };
+        return (double) compressedLength / sample.length <= maxRatio;
+    }
+
+    private long deflatedLength(byte[] sample) {
+        Deflater deflater = new Deflater(Math.min(level, Deflater.BEST_COMPRESSION), true);
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            byte[] out = new byte[sample.length + 64];
+            long length = 0;
+            while (!deflater.finished()) {
+                length += deflater.deflate(out);
+            }
+            return length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static Flux<DataBuffer> decode(Flux<DataBuffer> content, StorageCodec codec) {
+        if (codec == StorageCodec.NONE) {
+            return content;
+        }
+        return Flux.using(() -> codec == StorageCodec.GZIP
+                                ? new GzipStream()
+                                : new ZstdStream(null, new ZstdDecompressCtx()),
+                        decoder -> content.publishOn(Schedulers.boundedElastic())
+                                .concatMap(dataBuffer -> decoder.decode(toBytes(dataBuffer)), 1)
+                                .concatWith(Flux.defer(decoder::finish)),
+                        StreamDecoder::close)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    static Flux<DataBuffer> encode(Flux<DataBuffer> content, StorageCodec codec, int level) {
+        return switch (codec) {
+            case GZIP -> throughChannel(content,
+                    () -> new EmbeddedChannel(ZlibCodecFactory.newZlibEncoder(ZlibWrapper.GZIP,
+                            Math.min(level, Deflater.BEST_COMPRESSION))));
+            case ZSTD -> zstdEncode(content, level);
+            case NONE -> content;
+        };
+    }
+
+    private static Flux<DataBuffer> throughChannel(Flux<DataBuffer> content, Supplier<EmbeddedChannel> channelSupplier) {
+        return Flux.using(channelSupplier::get,
+                channel -> content
+                        .concatMapIterable(dataBuffer -> {
+                            channel.writeOutbound(Unpooled.wrappedBuffer(toBytes(dataBuffer)));
+                            return drain(channel);
+                        })
+                        .concatWith(Flux.defer(() -> {
+                            channel.finish();
+                            return Flux.fromIterable(drain(channel));
+                        })),
+                EmbeddedChannel::finishAndReleaseAll);
+    }
+
+    private static List<DataBuffer> drain(EmbeddedChannel channel) {
+        List<DataBuffer> dataBuffers = new ArrayList<>();
+        ByteBuf byteBuf;
+        while ((byteBuf = channel.readOutbound()) != null) {
+            try {
+                if (byteBuf.isReadable()) {
+                    dataBuffers.add(DefaultDataBufferFactory.sharedInstance.wrap(ByteBufUtil.getBytes(byteBuf)));
+                }
+            } finally {
+                byteBuf.release();
+            }
+        }
+        return dataBuffers;
+    }
+
+    private static Flux<DataBuffer> zstdEncode(Flux<DataBuffer> content, int level) {
+        return Flux.using(() -> new ZstdStream(new ZstdCompressCtx().setLevel(level), null),
+                stream -> content
+                        .concatMapIterable(dataBuffer -> stream.compress(toBytes(dataBuffer), EndDirective.CONTINUE))
+                        .concatWith(Flux.defer(() -> Flux.fromIterable(stream.compress(new byte[0], EndDirective.END)))),
+                ZstdStream::close);
+    }
+
+    private static byte[] toBytes(DataBuffer dataBuffer) {
+        try {
+            byte[] bytes = new byte[dataBuffer.readableByteCount()];
+            dataBuffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(dataBuffer);
+        }
+    }
+
+    private interface StreamDecoder {
+
+        Flux<DataBuffer> decode(byte[] bytes);
+
+        Flux<DataBuffer> finish();
+
+        void close();
+    }
+
+    private static final class ZstdStream implements StreamDecoder {
+        private final ZstdCompressCtx compressCtx;
+        private final ZstdDecompressCtx decompressCtx;
+        private final ByteBuffer source = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ByteBuffer target = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private boolean draining;
+
+        private ZstdStream(ZstdCompressCtx compressCtx, ZstdDecompressCtx decompressCtx) {
+            this.compressCtx = compressCtx;
+            this.decompressCtx = decompressCtx;
+            source.limit(0);
+        }
+
+        private List<DataBuffer> compress(byte[] bytes, EndDirective directive) {
+            List<DataBuffer> output = new ArrayList<>();
+            int offset = 0;
+            do {
+                int length = Math.min(bytes.length - offset, source.capacity());
+                source.clear();
+                source.put(bytes, offset, length).flip();
+                offset += length;
+                EndDirective step = offset < bytes.length ? EndDirective.CONTINUE : directive;
+                boolean done;
+                do {
+                    done = compressCtx.compressDirectByteBufferStream(target, source, step);
+                    collect(output);
+                } while (source.hasRemaining() || (step != EndDirective.CONTINUE && !done));
+            } while (offset < bytes.length);
+            return output;
+        }
+
+        @Override
+        public Flux<DataBuffer> decode(byte[] bytes) {
+            return Flux.generate(() -> 0, (offset, sink) -> {
+                int next = offset;
+                while (true) {
+                    if (!source.hasRemaining() && !draining) {
+                        if (next >= bytes.length) {
+                            sink.complete();
+                            return next;
+                        }
+                        int length = Math.min(bytes.length - next, source.capacity());
+                        source.clear();
+                        source.put(bytes, next, length).flip();
+                        next += length;
+                    }
+                    decompressCtx.decompressDirectByteBufferStream(target, source);
+                    draining = !target.hasRemaining();
+                    DataBuffer chunk = take();
+                    if (chunk != null) {
+                        sink.next(chunk);
+                        return next;
+                    }
+                }
+            });
+        }
+
+        @Override
+        public Flux<DataBuffer> finish() {
+            return Flux.empty();
+        }
+
+        private void collect(List<DataBuffer> output) {
+            DataBuffer chunk = take();
+            if (chunk != null) {
+                output.add(chunk);
+            }
+        }
+
+        private DataBuffer take() {
+            target.flip();
+            DataBuffer chunk = null;
+            if (target.hasRemaining()) {
+                byte[] bytes = new byte[target.remaining()];
+                target.get(bytes);
+                chunk = DefaultDataBufferFactory.sharedInstance.wrap(bytes);
+            }
+            target.clear();
+            return chunk;
+        }
+
+        @Override
+        public void close() {
+            if (compressCtx != null) {
+                compressCtx.close();
+            }
+            if (decompressCtx != null) {
+                decompressCtx.close();
+            }
+        }
+    }
+
+    private static final class GzipStream implements StreamDecoder {
+        private static final int HEADER_SIZE = 10;
+        private static final int TRAILER_SIZE = 8;
+        private static final int FHCRC = 2;
+        private static final int FEXTRA = 4;
+        private static final int FNAME = 8;
+        private static final int FCOMMENT = 16;
+        private static final int INCOMPLETE = -1;
+        private static final byte[] EMPTY = new byte[0];
+
+        private final Inflater inflater = new Inflater(true);
+        private final CRC32 crc = new CRC32();
+        private final byte[] output = new byte[BUFFER_SIZE];
+        private byte[] pending = EMPTY;
+        private byte[] input = EMPTY;
+        private boolean inBody;
+        private boolean inTrailer;
+
+        @Override
+        public Flux<DataBuffer> decode(byte[] bytes) {
+            return Flux.defer(() -> {
+                if (inBody) {
+                    input = bytes;
+                    inflater.setInput(bytes);
+                } else {
+                    pending = concat(pending, bytes);
+                }
+                return Flux.generate(this::next);
+            });
+        }
+
+        @Override
+        public Flux<DataBuffer> finish() {
+            if (inBody || inTrailer || pending.length > 0) {
+                return Flux.error(new EOFException("Unexpected end of GZIP stream"));
+            }
+            return Flux.empty();
+        }
+
+        @Override
+        public void close() {
+            inflater.end();
+        }
+
+        private void next(SynchronousSink<DataBuffer> sink) {
+            try {
+                while (true) {
+                    if (inBody) {
+                        int length = inflater.inflate(output);
+                        if (length > 0) {
+                            crc.update(output, 0, length);
+                            sink.next(DefaultDataBufferFactory.sharedInstance.wrap(Arrays.copyOf(output, length)));
+                            return;
+                        }
+                        if (!inflater.finished()) {
+                            sink.complete();
+                            return;
+                        }
+                        pending = Arrays.copyOfRange(input, input.length - inflater.getRemaining(), input.length);
+                        inBody = false;
+                        inTrailer = true;
+                    } else if (inTrailer) {
+                        if (pending.length < TRAILER_SIZE) {
+                            sink.complete();
+                            return;
+                        }
+                        if (readInt(pending, 0) != (int) crc.getValue() || readInt(pending, 4) != (int) inflater.getBytesWritten()) {
+                            sink.error(new ZipException("Corrupt GZIP trailer"));
+                            return;
+                        }
+                        pending = Arrays.copyOfRange(pending, TRAILER_SIZE, pending.length);
+                        inTrailer = false;
+                    } else {
+                        int headerLength = headerLength(pending);
+                        if (headerLength == INCOMPLETE) {
+                            sink.complete();
+                            return;
+                        }
+                        input = Arrays.copyOfRange(pending, headerLength, pending.length);
+                        pending = EMPTY;
+                        inflater.reset();
+                        inflater.setInput(input);
+                        crc.reset();
+                        inBody = true;
+                    }
+                }
+            } catch (DataFormatException | ZipException e) {
+                sink.error(e);
+            }
+        }
+
+        private static int headerLength(byte[] bytes) throws ZipException {
+            if (bytes.length < HEADER_SIZE) {
+                return INCOMPLETE;
+            }
+            if ((bytes[0] & 0xff) != 0x1f || (bytes[1] & 0xff) != 0x8b || bytes[2] != Deflater.DEFLATED) {
+                throw new ZipException("Not in GZIP format");
+            }
+            int flags = bytes[3] & 0xff;
+            int position = HEADER_SIZE;
+            if ((flags & FEXTRA) != 0) {
+                if (bytes.length < position + 2) {
+                    return INCOMPLETE;
+                }
+                position += 2 + ((bytes[position] & 0xff) | (bytes[position + 1] & 0xff) << 8);
+            }
+            if ((flags & FNAME) != 0) {
+                position = skipZeroTerminated(bytes, position);
+            }
+            if ((flags & FCOMMENT) != 0) {
+                position = skipZeroTerminated(bytes, position);
+            }
+            if ((flags & FHCRC) != 0 && position != INCOMPLETE) {
+                position += 2;
+            }
+            return position != INCOMPLETE && position <= bytes.length ? position : INCOMPLETE;
+        }
+
+        private static int skipZeroTerminated(byte[] bytes, int position) {
+            if (position == INCOMPLETE) {
+                return INCOMPLETE;
+            }
+            for (int i = position; i < bytes.length; i++) {
+                if (bytes[i] == 0) {
+                    return i + 1;
+                }
+            }
+            return INCOMPLETE;
+        }
+
+        private static int readInt(byte[] bytes, int offset) {
+            return (bytes[offset] & 0xff) | (bytes[offset + 1] & 0xff) << 8
+                    | (bytes[offset + 2] & 0xff) << 16 | (bytes[offset + 3] & 0xff) << 24;
+        }
+
+        private static byte[] concat(byte[] first, byte[] second) {
+            byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+            System.arraycopy(second, 0, bytes, first.length, second.length);
+            return bytes;
+        }
+    }
+}
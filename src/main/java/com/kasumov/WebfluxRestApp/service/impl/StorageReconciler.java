@@ -0,0 +1,203 @@
+package com.kasumov.WebfluxRestApp.service.impl;
+
+import com.kasumov.WebfluxRestApp.dto.StoredObjectDTO;
+import com.kasumov.WebfluxRestApp.model.File;
+import com.kasumov.WebfluxRestApp.repository.FileRepository;
+import com.kasumov.WebfluxRestApp.repository.FileStorageRepository;
+import com.kasumov.WebfluxRestApp.repository.ReconcilerCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.reconciler.enabled", havingValue = "true")
+class StorageReconciler {
+
+    private static final String OBJECTS = "objects";
+    private static final String FILES = "files";
+    private static final Pattern CONTENT_KEY = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${app.reconciler.page-size}")
+    private int pageSize;
+
+    @Value("${app.reconciler.ops-per-second}")
+    private double opsPerSecond;
+
+    @Value("${app.reconciler.min-object-age}")
+    private Duration minObjectAge;
+
+    @Value("${app.reconciler.lease-duration}")
+    private Duration leaseDuration;
+
+    @Value("${app.reconciler.delete-orphan-objects}")
+    private boolean deleteOrphanObjects;
+
+    @Value("${app.reconciler.delete-orphan-files}")
+    private boolean deleteOrphanFiles;
+
+    private final FileStorageRepository fileStorageRepository;
+    private final FileRepository fileRepository;
+    private final ReconcilerCheckpointRepository checkpointRepository;
+    private final MeterRegistry meterRegistry;
+    private final String owner = UUID.randomUUID().toString();
+
+    private Duration opInterval;
+    private Counter orphanObjects;
+    private Counter orphanFiles;
+    private Counter deletedObjects;
+    private Counter deletedFiles;
+
+    StorageReconciler(FileStorageRepository fileStorageRepository, FileRepository fileRepository,
+                      ReconcilerCheckpointRepository checkpointRepository, MeterRegistry meterRegistry) {
+        this.fileStorageRepository = fileStorageRepository;
+        this.fileRepository = fileRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    private void init() {
+        opInterval = Duration.ofNanos((long) (1_000_000_000L / opsPerSecond));
+        orphanObjects = meterRegistry.counter("reconciler.orphans", "side", OBJECTS);
+        orphanFiles = meterRegistry.counter("reconciler.orphans", "side", FILES);
+        deletedObjects = meterRegistry.counter("reconciler.cleaned", "side", OBJECTS);
+        deletedFiles = meterRegistry.counter("reconciler.cleaned", "side", FILES);
+    }
+
+    @Scheduled(initialDelayString = "${app.reconciler.initial-delay}", fixedDelayString = "${app.reconciler.interval}")
+    public Mono<Void> reconcile() {
+        return withLease(OBJECTS, this::sweepObjects)
+                .then(withLease(FILES, this::sweepFiles))
+                .doOnError(error -> log.error("RECONCILIATION_FAILED: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    private Mono<Void> withLease(String name, Function<String, Mono<Void>> sweep) {
+        return Mono.defer(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            return checkpointRepository.acquireLease(name, owner, now, now.plus(leaseDuration));
+        })
+                .filter(updated -> updated > 0)
+                .flatMap(updated -> checkpointRepository.findById(name))
+                .flatMap(checkpoint -> {
+                    log.info("RECONCILING: {} from {}", name, checkpoint.getCursorValue());
+                    return sweep.apply(checkpoint.getCursorValue())
+                            .then(checkpointRepository.releaseLease(name, owner));
+                })
+                .then();
+    }
+
+    private Mono<Void> sweepObjects(String cursor) {
+        return objectPage(cursor)
+                .expand(page -> page.done() ? Mono.empty() : objectPage(page.cursor()))
+                .then();
+    }
+
+    private Mono<Page> objectPage(String startAfter) {
+        return throttle()
+                .thenMany(fileStorageRepository.listStoredObjects(startAfter, pageSize))
+                .collectList()
+                .flatMap(objects -> {
+                    String cursor = objects.isEmpty() ? null : objects.get(objects.size() - 1).getKey();
+                    return reconcileObjects(objects)
+                            .then(saveCursor(OBJECTS, cursor))
+                            .thenReturn(new Page(cursor, objects.isEmpty()));
+                });
+    }
+
+    private Mono<Void> reconcileObjects(List<StoredObjectDTO> objects) {
+        Instant createdBefore = Instant.now().minus(minObjectAge);
+        List<String> candidates = objects.stream()
+                .filter(object -> CONTENT_KEY.matcher(object.getKey()).matches())
+                .filter(object -> object.getLastModified().isBefore(createdBefore))
+                .map(StoredObjectDTO::getKey)
+                .toList();
+        if (candidates.isEmpty()) {
+            return Mono.empty();
+        }
+        return fileRepository.findActiveChecksumsIn(candidates)
+                .collect(HashSet<String>::new, HashSet::add)
+                .flatMapMany(referenced -> Flux.fromIterable(candidates)
+                        .filter(key -> !referenced.contains(key)))
+                .concatMap(key -> {
+                    orphanObjects.increment();
+                    log.warn("ORPHAN_OBJECT: {}", key);
+                    if (!deleteOrphanObjects) {
+                        return Mono.empty();
+                    }
+                    return throttle()
+                            .then(fileStorageRepository.deleteStoredObject(key))
+                            .doOnSuccess(unused -> deletedObjects.increment());
+                })
+                .then();
+    }
+
+    private Mono<Void> sweepFiles(String cursor) {
+        return filePage(cursor != null ? Long.parseLong(cursor) : 0L)
+                .expand(page -> page.done() ? Mono.empty() : filePage(Long.parseLong(page.cursor())))
+                .then();
+    }
+
+    private Mono<Page> filePage(long afterId) {
+        return throttle()
+                .thenMany(fileRepository.findActiveStoredAfterId(afterId, pageSize))
+                .collectList()
+                .flatMap(files -> {
+                    String cursor = files.isEmpty() ? null : String.valueOf(files.get(files.size() - 1).getId());
+                    return Flux.fromIterable(files)
+                            .concatMap(this::reconcileFile)
+                            .then(saveCursor(FILES, cursor))
+                            .thenReturn(new Page(cursor, files.isEmpty()));
+                });
+    }
+
+    private Mono<Void> reconcileFile(File file) {
+        return throttle()
+                .then(fileStorageRepository.findStoredFile(file.getChecksum()).hasElement())
+                .filter(exists -> !exists)
+                .flatMap(missing -> {
+                    orphanFiles.increment();
+                    log.warn("ORPHAN_FILE: {} -> {}", file.getId(), file.getChecksum());
+                    if (!deleteOrphanFiles) {
+                        return Mono.empty();
+                    }
+                    return fileRepository.markDeletedById(file.getId())
+                            .doOnSuccess(updated -> deletedFiles.increment(updated))
+                            .then();
+                });
+    }
+
+    private Mono<Void> saveCursor(String name, String cursor) {
+        return Mono.defer(() -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    return checkpointRepository.saveCursor(name, owner, cursor, now, now.plus(leaseDuration));
+                })
+                .flatMap(updated -> updated > 0
+                        ? Mono.<Void>empty()
+                        : Mono.error(new IllegalStateException("Lost reconciler lease for " + name)));
+    }
+
+    private Mono<Long> throttle() {
+        return Mono.delay(opInterval);
+    }
+
+    private record Page(String cursor, boolean done) {
+    }
+}
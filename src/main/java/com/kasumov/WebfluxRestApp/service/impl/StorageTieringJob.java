@@ -0,0 +1,104 @@
+package com.kasumov.WebfluxRestApp.service.impl;
+
+import com.kasumov.WebfluxRestApp.repository.FileRepository;
+import com.kasumov.WebfluxRestApp.repository.FileStorageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.tiering.enabled", havingValue = "true")
+class StorageTieringJob {
+
+    private static final String STANDARD_STORAGE_CLASS = "STANDARD";
+
+    @Value("${app.tiering.cold-after}")
+    private Duration coldAfter;
+
+    @Value("${app.tiering.storage-class}")
+    private String storageClass;
+
+    @Value("${app.tiering.min-size}")
+    private DataSize minSize;
+
+    @Value("${app.tiering.page-size}")
+    private int pageSize;
+
+    @Value("${app.tiering.ops-per-second}")
+    private double opsPerSecond;
+
+    private final FileStorageRepository fileStorageRepository;
+    private final FileRepository fileRepository;
+    private final MeterRegistry meterRegistry;
+
+    private Duration opInterval;
+    private Counter tiered;
+
+    StorageTieringJob(FileStorageRepository fileStorageRepository, FileRepository fileRepository,
+                      MeterRegistry meterRegistry) {
+        this.fileStorageRepository = fileStorageRepository;
+        this.fileRepository = fileRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    private void init() {
+        opInterval = Duration.ofNanos((long) (1_000_000_000L / opsPerSecond));
+        tiered = meterRegistry.counter("file.tiering.moved", "storage_class", storageClass);
+    }
+
+    @Scheduled(initialDelayString = "${app.tiering.initial-delay}", fixedDelayString = "${app.tiering.interval}")
+    public Mono<Void> tierColdObjects() {
+        return Mono.defer(() -> {
+                    LocalDateTime accessedBefore = LocalDateTime.now().minus(coldAfter);
+                    return page("", accessedBefore)
+                            .expand(checksums -> checksums.size() < pageSize
+                                    ? Mono.empty()
+                                    : page(checksums.get(checksums.size() - 1), accessedBefore))
+                            .then();
+                })
+                .onErrorResume(error -> error instanceof ResponseStatusException responseStatusException
+                                && responseStatusException.getStatusCode() == HttpStatus.NOT_IMPLEMENTED,
+                        error -> {
+                            log.info("STORAGE_TIERING_UNSUPPORTED: {}", error.getMessage());
+                            return Mono.empty();
+                        })
+                .doOnError(error -> log.error("STORAGE_TIERING_FAILED: {}", error.getMessage()))
+                .onErrorResume(error -> Mono.empty());
+    }
+
+    private Mono<List<String>> page(String afterChecksum, LocalDateTime accessedBefore) {
+        return fileRepository.findColdChecksums(STANDARD_STORAGE_CLASS, afterChecksum, accessedBefore,
+                        minSize.toBytes(), pageSize)
+                .collectList()
+                .flatMap(checksums -> Flux.fromIterable(checksums)
+                        .concatMap(this::moveToColdStorage)
+                        .then(Mono.just(checksums)));
+    }
+
+    private Mono<Void> moveToColdStorage(String checksum) {
+        return Mono.delay(opInterval)
+                .then(fileStorageRepository.changeStorageClass(checksum, storageClass))
+                .flatMap(eTag -> fileRepository.updateStorageClassByChecksum(checksum, storageClass, eTag))
+                .doOnSuccess(updated -> {
+                    tiered.increment();
+                    log.info("TIERED_TO_COLD_STORAGE: {} ({} files)", checksum, updated);
+                })
+                .then();
+    }
+}
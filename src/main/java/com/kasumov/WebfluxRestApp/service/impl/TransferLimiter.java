@@ -0,0 +1,186 @@
+package com.kasumov.WebfluxRestApp.service.impl;
+
+import com.kasumov.WebfluxRestApp.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Component
+class TransferLimiter {
+
+    @Value("${app.storage.limits.enabled}")
+    private boolean enabled;
+
+    @Value("${app.storage.limits.global-permits}")
+    private int globalPermits;
+
+    @Value("${app.storage.limits.per-user-permits}")
+    private int perUserPermits;
+
+    @Value("${app.storage.limits.max-queue-size}")
+    private int maxQueueSize;
+
+    @Value("${app.storage.limits.queue-timeout}")
+    private Duration queueTimeout;
+
+    @Value("${app.storage.limits.retry-after}")
+    private Duration retryAfter;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Long, Integer> userPermits = new HashMap<>();
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private int permitsInUse;
+
+    private Counter rejected;
+    private Timer queueWait;
+
+    TransferLimiter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    private void init() {
+        rejected = meterRegistry.counter("file.transfer.rejected");
+        queueWait = meterRegistry.timer("file.transfer.queue.wait");
+        Gauge.builder("file.transfer.permits.in-use", this, TransferLimiter::getPermitsInUse)
+                .register(meterRegistry);
+        Gauge.builder("file.transfer.queue.depth", this, TransferLimiter::getQueueDepth)
+                .register(meterRegistry);
+    }
+
+    Mono<Permit> acquire(Long userId) {
+        if (!enabled) {
+            return Mono.just(new Permit(null));
+        }
+        return Mono.<Permit>create(sink -> {
+                    Permit permit = new Permit(userId);
+                    Waiter waiter;
+                    synchronized (this) {
+                        if (tryAcquire(userId)) {
+                            waiter = null;
+                        } else if (waiters.size() < maxQueueSize) {
+                            waiter = new Waiter(permit, sink, System.nanoTime());
+                            waiters.add(waiter);
+                        } else {
+                            sink.error(reject(userId));
+                            return;
+                        }
+                    }
+                    if (waiter == null) {
+                        sink.success(permit);
+                        return;
+                    }
+                    sink.onCancel(() -> cancel(waiter));
+                })
+                .timeout(queueTimeout)
+                .onErrorMap(TimeoutException.class, error -> reject(userId));
+    }
+
+    private boolean tryAcquire(Long userId) {
+        if (permitsInUse >= globalPermits) {
+            return false;
+        }
+        if (userId != null) {
+            int held = userPermits.getOrDefault(userId, 0);
+            if (held >= perUserPermits) {
+                return false;
+            }
+            userPermits.put(userId, held + 1);
+        }
+        permitsInUse++;
+        return true;
+    }
+
+    private void release(Long userId) {
+        Waiter next = null;
+        synchronized (this) {
+            permitsInUse--;
+            if (userId != null) {
+                userPermits.computeIfPresent(userId, (id, held) -> held > 1 ? held - 1 : null);
+            }
+            Iterator<Waiter> iterator = waiters.iterator();
+            while (iterator.hasNext()) {
+                Waiter waiter = iterator.next();
+                if (tryAcquire(waiter.permit.userId)) {
+                    iterator.remove();
+                    waiter.granted = true;
+                    next = waiter;
+                    break;
+                }
+            }
+        }
+        if (next != null) {
+            queueWait.record(Duration.ofNanos(System.nanoTime() - next.queuedAt));
+            next.sink.success(next.permit);
+        }
+    }
+
+    private void cancel(Waiter waiter) {
+        boolean granted;
+        synchronized (this) {
+            granted = waiter.granted || !waiters.remove(waiter);
+        }
+        if (granted) {
+            waiter.permit.release();
+        }
+    }
+
+    private TooManyRequestsException reject(Long userId) {
+        rejected.increment();
+        log.warn("TRANSFER_REJECTED: {}", userId);
+        return new TooManyRequestsException("Too many concurrent transfers", retryAfter);
+    }
+
+    private synchronized int getPermitsInUse() {
+        return permitsInUse;
+    }
+
+    private synchronized int getQueueDepth() {
+        return waiters.size();
+    }
+
+    final class Permit {
+        private final Long userId;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(Long userId) {
+            this.userId = userId;
+        }
+
+        void release() {
+            if (enabled && released.compareAndSet(false, true)) {
+                TransferLimiter.this.release(userId);
+            }
+        }
+    }
+
+    private static final class Waiter {
+        private final Permit permit;
+        private final MonoSink<Permit> sink;
+        private final long queuedAt;
+        private boolean granted;
+
+        private Waiter(Permit permit, MonoSink<Permit> sink, long queuedAt) {
+            this.permit = permit;
+            this.sink = sink;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.kasumov.WebfluxRestApp.service.impl;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+final class UploadValidationStream {
+
+    private static final MediaType APPLICATION_ZIP = MediaType.parseMediaType("application/zip");
+
+    private static final List<Signature> SIGNATURES = List.of(
+            new Signature(0, "89504E470D0A1A0A", "image/png"),
+            new Signature(0, "FFD8FF", "image/jpeg"),
+            new Signature(0, "474946383761", "image/gif"),
+            new Signature(0, "474946383961", "image/gif"),
+            new Signature(0, "424D", "image/bmp"),
+            new Signature(0, "49492A00", "image/tiff"),
+            new Signature(0, "4D4D002A", "image/tiff"),
+            new Signature(8, "57454250", "image/webp"),
+            new Signature(0, "25504446", "application/pdf"),
+            new Signature(0, "504B0304", "application/zip"),
+            new Signature(0, "504B0506", "application/zip"),
+            new Signature(0, "1F8B", "application/gzip"),
+            new Signature(0, "28B52FFD", "application/zstd"),
+            new Signature(0, "377ABCAF271C", "application/x-7z-compressed"),
+            new Signature(0, "526172211A07", "application/vnd.rar"),
+            new Signature(4, "66747970", "video/mp4"),
+            new Signature(0, "1A45DFA3", "video/webm"),
+            new Signature(8, "41564920", "video/x-msvideo"),
+            new Signature(0, "494433", "audio/mpeg"),
+            new Signature(0, "FFFB", "audio/mpeg"),
+            new Signature(0, "4F676753", "audio/ogg"),
+            new Signature(0, "664C6143", "audio/flac"),
+            new Signature(8, "57415645", "audio/wav"),
+            new Signature(0, "4D5A", "application/x-msdownload"),
+            new Signature(0, "7F454C46", "application/x-executable"),
+            new Signature(0, "CAFEBABE", "application/java-vm"),
+            new Signature(0, "2321", "application/x-sh"));
+
+    private final List<MediaType> allowedTypes;
+    private final long maxSize;
+    private final int sniffSize;
+    private final AtomicLong received = new AtomicLong();
+    private volatile MediaType detectedType;
+
+    UploadValidationStream(List<MediaType> allowedTypes, long maxSize, int sniffSize) {
+        this.allowedTypes = allowedTypes;
+        this.maxSize = maxSize;
+        this.sniffSize = sniffSize;
+    }
+
+    Flux<DataBuffer> validate(Flux<DataBuffer> content) {
+        return Flux.defer(() -> {
+                    AtomicLong buffered = new AtomicLong();
+                    return content
+                            .doOnNext(this::checkSize)
+                            .bufferUntil(dataBuffer -> buffered.addAndGet(dataBuffer.readableByteCount()) >= sniffSize);
+                })
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                .switchOnFirst((signal, chunks) -> {
+                    if (signal.hasValue()) {
+                        MediaType type = detect(signal.get());
+                        if (allowedTypes.stream().noneMatch(allowed -> allowed.includes(type))) {
+                            signal.get().forEach(DataBufferUtils::release);
+                            return Flux.error(new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE,
+                                    "File type " + type + " is not allowed"));
+                        }
+                        detectedType = type;
+                    }
+                    return chunks.concatMapIterable(Function.identity());
+                });
+    }
+
+    MediaType detectedType() {
+        return detectedType;
+    }
+
+    String resolveContentType(String declaredContentType) {
+        MediaType detected = detectedType;
+        if (detected == null || detected.equals(MediaType.APPLICATION_OCTET_STREAM) || detected.equals(MediaType.TEXT_PLAIN)) {
+            return declaredContentType;
+        }
+        if (detected.equals(APPLICATION_ZIP) && isZipContainer(MediaType.parseMediaType(declaredContentType))) {
+            return declaredContentType;
+        }
+        return detected.toString();
+    }
+
+    private static boolean isZipContainer(MediaType declared) {
+        String subtype = declared.getSubtype();
+        return declared.getType().equals("application")
+                && (subtype.endsWith("+zip") || subtype.contains("openxmlformats") || subtype.contains("opendocument")
+                || subtype.equals("java-archive") || subtype.equals("epub+zip"));
+    }
+
+    private void checkSize(DataBuffer dataBuffer) {
+        if (received.addAndGet(dataBuffer.readableByteCount()) > maxSize) {
+            DataBufferUtils.release(dataBuffer);
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "File exceeds the maximum size of " + maxSize + " bytes");
+        }
+    }
+
+    private MediaType detect(List<DataBuffer> probe) {
+        byte[] sample = head(probe);
+        if (sample.length == 0) {
+            return MediaType.TEXT_PLAIN;
+        }
+        for (Signature signature : SIGNATURES) {
+            if (signature.matches(sample)) {
+                return signature.type;
+            }
+        }
+        return isText(sample) ? MediaType.TEXT_PLAIN : MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    private byte[] head(List<DataBuffer> probe) {
+        int length = 0;
+        for (DataBuffer dataBuffer : probe) {
+            length += dataBuffer.readableByteCount();
+        }
+        byte[] sample = new byte[Math.min(length, sniffSize)];
+        int offset = 0;
+        for (DataBuffer dataBuffer : probe) {
+            int count = Math.min(dataBuffer.readableByteCount(), sample.length - offset);
+            dataBuffer.toByteBuffer(dataBuffer.readPosition(), ByteBuffer.wrap(sample), offset, count);
+            offset += count;
+            if (offset == sample.length) {
+                break;
+            }
+        }
+        return sample;
+    }
+
+    private static boolean isText(byte[] sample) {
+        for (byte b : sample) {
+            if (b == 0) {
+                return false;
+            }
+        }
+        CoderResult result = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(sample), CharBuffer.allocate(sample.length), false);
+        return !result.isError();
+    }
+
+    private record Signature(int offset, byte[] magic, MediaType type) {
+
+        private Signature(int offset, String hex, String type) {
+            this(offset, HexFormat.of().parseHex(hex), MediaType.parseMediaType(type));
+        }
+
+        private boolean matches(byte[] sample) {
+            if (sample.length < offset + magic.length) {
+                return false;
+            }
+            for (int i = 0; i < magic.length; i++) {
+                if (sample[offset + i] != magic[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
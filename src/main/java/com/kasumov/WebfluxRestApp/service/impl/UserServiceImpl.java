@@ -4,6 +4,7 @@ import com.kasumov.WebfluxRestApp.dto.UserDTO;
 import com.kasumov.WebfluxRestApp.dto.UserRequestDTO;
 import com.kasumov.WebfluxRestApp.mapper.EventMapper;
 import com.kasumov.WebfluxRestApp.mapper.UserMapper;
+import com.kasumov.WebfluxRestApp.model.Event;
 import com.kasumov.WebfluxRestApp.model.File;
 import com.kasumov.WebfluxRestApp.model.UserEntity;
 import com.kasumov.WebfluxRestApp.model.UserRole;
@@ -13,8 +14,11 @@ import com.kasumov.WebfluxRestApp.repository.UserRepository;
 import com.kasumov.WebfluxRestApp.security.CustomPrincipal;
 import com.kasumov.WebfluxRestApp.service.UserService;
 import com.kasumov.WebfluxRestApp.security.SecurityUtils;
+import io.netty.util.collection.LongObjectHashMap;
+import io.netty.util.collection.LongObjectMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -22,13 +26,18 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    @Value("${app.users.file-lookup-batch-size}")
+    private int fileLookupBatchSize;
+
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final FileRepository fileRepository;
@@ -78,12 +87,14 @@ public class UserServiceImpl implements UserService {
                 })
                 .flatMap(userEntity ->
                         eventRepository.findAllActiveByUserId(userEntity.getId())
-                                .flatMap(event ->
-                                        fileRepository.findActiveById(event.getFileId())
-                                                .defaultIfEmpty(new File())
-                                                .map(file -> eventMapper.map(event, file))
-                                )
                                 .collectList()
+                                .flatMap(events -> findFilesOf(events)
+                                        .map(files -> events.stream()
+                                                .map(event -> {
+                                                    File file = files.get(event.getFileId());
+                                                    return eventMapper.map(event, file != null ? file : new File());
+                                                })
+                                                .toList()))
                                 .map(eventDTOs -> {
                                     UserDTO userDTO = userMapper.map(userEntity);
                                     userDTO.setEventDTOs(eventDTOs);
@@ -97,6 +108,15 @@ public class UserServiceImpl implements UserService {
                 .doOnError(error -> log.error(error.getMessage(), id));
     }
 
+    private Mono<LongObjectMap<File>> findFilesOf(List<Event> events) {
+        return Flux.fromIterable(events)
+                .map(Event::getFileId)
+                .distinct()
+                .buffer(fileLookupBatchSize)
+                .concatMap(fileRepository::findAllActiveByIdIn)
+                .collect(() -> new LongObjectHashMap<>(events.size()), (files, file) -> files.put(file.getId(), file));
+    }
+
     @Override
     public Mono<UserEntity> getUserByUsername(String username) {
         log.info("GetUserByUsername {}", username);
@@ -109,9 +129,9 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public Flux<UserDTO> getAllUsers() {
-        log.info("GetAllUsers");
-        return userRepository.findAllActive()
+    public Flux<UserDTO> getAllUsers(long cursor, int limit) {
+        log.info("GetAllUsers: {}, {}", cursor, limit);
+        return userRepository.findActivePage(cursor, limit)
                 .map(userMapper::mapToUserDTO);
     }
 
@@ -0,0 +1,240 @@
+package com.kasumov.WebfluxRestApp.service.impl;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+final class ZipStreamWriter {
+
+    record Entry(String name, long size, Flux<DataBuffer> content) {
+    }
+
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+
+    private static final int VERSION = 20;
+    private static final int VERSION_ZIP64 = 45;
+    private static final int FLAG_DATA_DESCRIPTOR_UTF8 = 0x0808;
+    private static final int METHOD_STORED = 0;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private final DataBufferFactory bufferFactory;
+    private final List<CentralDirectoryRecord> records = new ArrayList<>();
+    private final Set<String> names = new HashSet<>();
+    private final int dosTime;
+    private long offset;
+
+    private ZipStreamWriter(DataBufferFactory bufferFactory) {
+        this.bufferFactory = bufferFactory;
+        this.dosTime = dosTime(LocalDateTime.now());
+    }
+
+    static Flux<DataBuffer> write(Flux<Entry> entries, DataBufferFactory bufferFactory) {
+        return Flux.defer(() -> {
+            ZipStreamWriter writer = new ZipStreamWriter(bufferFactory);
+            return entries.concatMap(writer::writeEntry)
+                    .concatWith(Mono.fromCallable(writer::writeCentralDirectory));
+        });
+    }
+
+    private Flux<DataBuffer> writeEntry(Entry entry) {
+        CentralDirectoryRecord record = new CentralDirectoryRecord(
+                uniqueName(entry.name()).getBytes(StandardCharsets.UTF_8), offset, entry.size() >= ZIP64_MAGIC);
+        CRC32 crc = new CRC32();
+        return Flux.concat(
+                Mono.fromCallable(() -> writeLocalFileHeader(record)),
+                entry.content().map(dataBuffer -> {
+                    try (DataBuffer.ByteBufferIterator iterator = dataBuffer.readableByteBuffers()) {
+                        while (iterator.hasNext()) {
+                            crc.update(iterator.next());
+                        }
+                    }
+                    record.size += dataBuffer.readableByteCount();
+                    offset += dataBuffer.readableByteCount();
+                    return dataBuffer;
+                }),
+                Mono.fromCallable(() -> {
+                    record.crc = crc.getValue();
+                    records.add(record);
+                    return writeDataDescriptor(record);
+                }));
+    }
+
+    private DataBuffer writeLocalFileHeader(CentralDirectoryRecord record) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + record.name.length);
+        writeInt(out, LOCAL_FILE_HEADER_SIGNATURE);
+        writeShort(out, record.zip64 ? VERSION_ZIP64 : VERSION);
+        writeShort(out, FLAG_DATA_DESCRIPTOR_UTF8);
+        writeShort(out, METHOD_STORED);
+        writeInt(out, dosTime);
+        writeInt(out, 0);
+        writeInt(out, record.zip64 ? (int) ZIP64_MAGIC : 0);
+        writeInt(out, record.zip64 ? (int) ZIP64_MAGIC : 0);
+        writeShort(out, record.name.length);
+        writeShort(out, record.zip64 ? 20 : 0);
+        out.writeBytes(record.name);
+        if (record.zip64) {
+            writeShort(out, ZIP64_EXTRA_ID);
+            writeShort(out, 16);
+            writeLong(out, 0);
+            writeLong(out, 0);
+        }
+        return emit(out);
+    }
+
+    private DataBuffer writeDataDescriptor(CentralDirectoryRecord record) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(24);
+        writeInt(out, DATA_DESCRIPTOR_SIGNATURE);
+        writeInt(out, (int) record.crc);
+        if (record.zip64) {
+            writeLong(out, record.size);
+            writeLong(out, record.size);
+        } else {
+            writeInt(out, (int) record.size);
+            writeInt(out, (int) record.size);
+        }
+        return emit(out);
+    }
+
+    private DataBuffer writeCentralDirectory() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long centralDirectoryOffset = offset;
+        for (CentralDirectoryRecord record : records) {
+            boolean largeSize = record.size >= ZIP64_MAGIC;
+            boolean largeOffset = record.offset >= ZIP64_MAGIC;
+            int extraLength = (largeSize ? 16 : 0) + (largeOffset ? 8 : 0);
+
+            writeInt(out, CENTRAL_DIRECTORY_SIGNATURE);
+            writeShort(out, VERSION_ZIP64);
+            writeShort(out, record.zip64 || extraLength > 0 ? VERSION_ZIP64 : VERSION);
+            writeShort(out, FLAG_DATA_DESCRIPTOR_UTF8);
+            writeShort(out, METHOD_STORED);
+            writeInt(out, dosTime);
+            writeInt(out, (int) record.crc);
+            writeInt(out, (int) (largeSize ? ZIP64_MAGIC : record.size));
+            writeInt(out, (int) (largeSize ? ZIP64_MAGIC : record.size));
+            writeShort(out, record.name.length);
+            writeShort(out, extraLength > 0 ? extraLength + 4 : 0);
+            writeShort(out, 0);
+            writeShort(out, 0);
+            writeShort(out, 0);
+            writeInt(out, 0);
+            writeInt(out, (int) (largeOffset ? ZIP64_MAGIC : record.offset));
+            out.writeBytes(record.name);
+            if (extraLength > 0) {
+                writeShort(out, ZIP64_EXTRA_ID);
+                writeShort(out, extraLength);
+                if (largeSize) {
+                    writeLong(out, record.size);
+                    writeLong(out, record.size);
+                }
+                if (largeOffset) {
+                    writeLong(out, record.offset);
+                }
+            }
+        }
+        long centralDirectorySize = out.size();
+        long endOffset = centralDirectoryOffset + centralDirectorySize;
+
+        boolean zip64 = records.size() >= ZIP64_MAGIC_COUNT
+                || centralDirectoryOffset >= ZIP64_MAGIC
+                || centralDirectorySize >= ZIP64_MAGIC;
+        if (zip64) {
+            writeInt(out, ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            writeLong(out, 44);
+            writeShort(out, VERSION_ZIP64);
+            writeShort(out, VERSION_ZIP64);
+            writeInt(out, 0);
+            writeInt(out, 0);
+            writeLong(out, records.size());
+            writeLong(out, records.size());
+            writeLong(out, centralDirectorySize);
+            writeLong(out, centralDirectoryOffset);
+
+            writeInt(out, ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE);
+            writeInt(out, 0);
+            writeLong(out, endOffset);
+            writeInt(out, 1);
+        }
+
+        writeInt(out, END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+        writeShort(out, 0);
+        writeShort(out, 0);
+        writeShort(out, Math.min(records.size(), ZIP64_MAGIC_COUNT));
+        writeShort(out, Math.min(records.size(), ZIP64_MAGIC_COUNT));
+        writeInt(out, (int) Math.min(centralDirectorySize, ZIP64_MAGIC));
+        writeInt(out, (int) Math.min(centralDirectoryOffset, ZIP64_MAGIC));
+        writeShort(out, 0);
+        return emit(out);
+    }
+
+    private String uniqueName(String name) {
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        for (int i = 1; !names.add(candidate); i++) {
+            candidate = base + " (" + i + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private DataBuffer emit(ByteArrayOutputStream out) {
+        offset += out.size();
+        return bufferFactory.wrap(out.toByteArray());
+    }
+
+    private static int dosTime(LocalDateTime time) {
+        return (time.getYear() - 1980) << 25
+                | time.getMonthValue() << 21
+                | time.getDayOfMonth() << 16
+                | time.getHour() << 11
+                | time.getMinute() << 5
+                | time.getSecond() >> 1;
+    }
+
+    private static void writeShort(ByteArrayOutputStream out, int value) {
+        out.write(value & 0xFF);
+        out.write((value >>> 8) & 0xFF);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        writeShort(out, value);
+        writeShort(out, value >>> 16);
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        writeInt(out, (int) value);
+        writeInt(out, (int) (value >>> 32));
+    }
+
+    private static class CentralDirectoryRecord {
+        private final byte[] name;
+        private final long offset;
+        private final boolean zip64;
+        private long crc;
+        private long size;
+
+        private CentralDirectoryRecord(byte[] name, long offset, boolean zip64) {
+            this.name = name;
+            this.offset = offset;
+            this.zip64 = zip64;
+        }
+    }
+}
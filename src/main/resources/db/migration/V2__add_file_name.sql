@@ -0,0 +1,5 @@
+ALTER TABLE file ADD COLUMN file_name VARCHAR(255);
+
+UPDATE file SET file_name = SUBSTRING_INDEX(location, '/', -1);
+
+ALTER TABLE file MODIFY COLUMN file_name VARCHAR(255) NOT NULL;
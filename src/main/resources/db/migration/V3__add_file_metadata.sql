@@ -0,0 +1,5 @@
+ALTER TABLE file
+    ADD COLUMN size         BIGINT,
+    ADD COLUMN content_type VARCHAR(255),
+    ADD COLUMN checksum     CHAR(64),
+    ADD COLUMN etag         VARCHAR(255);
@@ -0,0 +1,25 @@
+CREATE TABLE IF NOT EXISTS upload_session (
+       id               BIGINT AUTO_INCREMENT PRIMARY KEY,
+       user_id          BIGINT        NOT NULL,
+       file_name        VARCHAR(255)  NOT NULL,
+       content_type     VARCHAR(255),
+       checksum         CHAR(64),
+       total_size       BIGINT        NOT NULL,
+       part_size        BIGINT        NOT NULL,
+       upload_key       VARCHAR(255)  NOT NULL,
+       upload_id        VARCHAR(1024) NOT NULL,
+       committed_offset BIGINT        NOT NULL DEFAULT 0,
+       created_at       TIMESTAMP,
+       status           ENUM('ACTIVE', 'DELETED') NOT NULL DEFAULT 'ACTIVE',
+       FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+CREATE TABLE IF NOT EXISTS upload_part (
+       id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+       session_id  BIGINT       NOT NULL,
+       part_number INT          NOT NULL,
+       etag        VARCHAR(255) NOT NULL,
+       size        BIGINT       NOT NULL,
+       FOREIGN KEY (session_id) REFERENCES upload_session(id) ON DELETE CASCADE,
+       UNIQUE (session_id, part_number)
+);
@@ -0,0 +1,5 @@
+ALTER TABLE file
+    ADD COLUMN codec       VARCHAR(16) NOT NULL DEFAULT 'NONE',
+    ADD COLUMN stored_size BIGINT;
+
+UPDATE file SET stored_size = size;
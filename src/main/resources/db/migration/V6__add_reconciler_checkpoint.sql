@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS reconciler_checkpoint (
+       name         VARCHAR(64)   PRIMARY KEY,
+       cursor_value VARCHAR(1024),
+       lease_owner  VARCHAR(64),
+       lease_until  TIMESTAMP     NULL,
+       updated_at   TIMESTAMP     NULL
+);
+
+INSERT INTO reconciler_checkpoint (name) VALUES ('objects'), ('files');
+
+CREATE INDEX idx_file_checksum_status ON file (checksum, status);
@@ -0,0 +1,8 @@
+ALTER TABLE file
+    ADD COLUMN last_accessed_at TIMESTAMP   NULL,
+    ADD COLUMN access_count     BIGINT      NOT NULL DEFAULT 0,
+    ADD COLUMN storage_class    VARCHAR(32) NOT NULL DEFAULT 'STANDARD';
+
+UPDATE file SET last_accessed_at = CURRENT_TIMESTAMP;
+
+CREATE INDEX idx_file_storage_class_checksum ON file (storage_class, checksum);
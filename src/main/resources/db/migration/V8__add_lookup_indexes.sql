@@ -0,0 +1,9 @@
+ALTER TABLE file ADD COLUMN object_key VARCHAR(255);
+
+UPDATE file SET object_key = SUBSTRING_INDEX(location, '/', -1);
+
+ALTER TABLE file MODIFY COLUMN object_key VARCHAR(255) NOT NULL;
+
+CREATE INDEX idx_file_file_name_status ON file (file_name, status, id);
+
+CREATE INDEX idx_event_user_id_status ON event (user_id, status, id);
@@ -0,0 +1,2 @@
+ALTER TABLE upload_session ADD COLUMN stored_key CHAR(64);
+ALTER TABLE upload_session ADD COLUMN digest_state VARBINARY(104);
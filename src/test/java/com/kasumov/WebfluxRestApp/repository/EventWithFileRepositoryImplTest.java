@@ -0,0 +1,183 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.model.Event;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest
+@Testcontainers(disabledWithoutDocker = true)
+class EventWithFileRepositoryImplTest {
+
+    private static final String CHECKSUM = "a".repeat(64);
+
+    private static final Queue<String> statements = new ConcurrentLinkedQueue<>();
+
+    @Container
+    private static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private EventRepository eventRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:mysql://" + mysql.getHost() + ":"
+                + mysql.getMappedPort(MySQLContainer.MYSQL_PORT) + "/" + mysql.getDatabaseName());
+        registry.add("spring.r2dbc.username", mysql::getUsername);
+        registry.add("spring.r2dbc.password", mysql::getPassword);
+        registry.add("spring.flyway.url", mysql::getJdbcUrl);
+        registry.add("spring.flyway.user", mysql::getUsername);
+        registry.add("spring.flyway.password", mysql::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        execute("DELETE FROM event");
+        execute("DELETE FROM file");
+        execute("DELETE FROM users");
+        execute("INSERT INTO users (id, username, password, role, first_name, last_name, enabled) VALUES " +
+                "(1, 'alice', 'secret', 'USER', 'Alice', 'Smith', TRUE), " +
+                "(2, 'bob', 'secret', 'USER', 'Bob', 'Jones', TRUE)");
+        execute("INSERT INTO file (id, file_name, location, object_key, size, stored_size, codec, content_type, " +
+                "checksum, etag, last_accessed_at, access_count, storage_class, status) VALUES " +
+                "(1, 'report.pdf', 'https://bucket.s3.amazonaws.com/files/" + CHECKSUM + "', '" + CHECKSUM + "', " +
+                "2048, 1024, 'GZIP', 'application/pdf', '" + CHECKSUM + "', '\"etag-1\"', " +
+                "'2024-01-02 03:04:05', 7, 'STANDARD_IA', 'ACTIVE')");
+        execute("INSERT INTO file (id, file_name, location, object_key) VALUES " +
+                "(2, 'legacy.txt', '/var/lib/files/legacy.txt', 'legacy.txt'), " +
+                "(3, 'shared.bin', '/var/lib/files/shared.bin', 'shared.bin')");
+        execute("INSERT INTO event (id, user_id, file_id) VALUES (1, 1, 1), (2, 1, 2), (3, 2, 3), (4, 2, 1)");
+    }
+
+    @Test
+    void findActivePageWithFileMapsLikePerEventFileLookup() {
+        List<Event> joined = eventRepository.findActivePageWithFile(0, 100).collectList().block();
+        List<Event> perEvent = withFiles(eventRepository.findAllActive()).collectList().block();
+
+        assertThat(joined).hasSize(4)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(perEvent);
+    }
+
+    @Test
+    void findActivePageWithFileByUserIdMapsLikePerEventFileLookup() {
+        List<Event> joined = eventRepository.findActivePageWithFileByUserId(1L, 0, 100).collectList().block();
+        List<Event> perEvent = withFiles(eventRepository.findAllActiveByUserId(1L)).collectList().block();
+
+        assertThat(joined).hasSize(2)
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyElementsOf(perEvent);
+        assertThat(joined.get(1).getFile().getSize()).isNull();
+        assertThat(joined.get(1).getFile().getChecksum()).isNull();
+        assertThat(joined.get(1).getFile().getLastAccessedAt()).isNull();
+    }
+
+    @Test
+    void findActivePageWithFileSkipsDeletedRowsAndPagesByCursor() {
+        execute("UPDATE event SET status = 'DELETED' WHERE id = 2");
+        execute("UPDATE file SET status = 'DELETED' WHERE id = 3");
+
+        assertThat(eventRepository.findActivePageWithFile(0, 100).map(Event::getId).collectList().block())
+                .containsExactly(1L, 4L);
+        assertThat(eventRepository.findActivePageWithFile(1, 1).map(Event::getId).collectList().block())
+                .containsExactly(4L);
+    }
+
+    @Test
+    void findActivePageWithFileIssuesOneStatementPerPageInsteadOfOnePerEvent() {
+        statements.clear();
+        List<Event> joined = eventRepository.findActivePageWithFile(0, 100).collectList().block();
+        List<String> joinedStatements = List.copyOf(statements);
+
+        statements.clear();
+        List<Event> perEvent = withFiles(eventRepository.findAllActive()).collectList().block();
+        List<String> perEventStatements = List.copyOf(statements);
+
+        assertThat(joined).hasSize(4);
+        assertThat(joinedStatements).hasSize(1);
+        assertThat(perEvent).hasSize(4);
+        assertThat(perEventStatements).hasSize(1 + perEvent.size());
+    }
+
+    private Flux<Event> withFiles(Flux<Event> events) {
+        return events.concatMap(event -> fileRepository.findActiveById(event.getFileId())
+                .map(file -> event.toBuilder().file(file).build()));
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementCountingPostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof ConnectionFactory connectionFactory)) {
+                        return bean;
+                    }
+                    return proxy(ConnectionFactory.class, (factoryProxy, method, args) -> {
+                        Object result = invoke(connectionFactory, method, args);
+                        if (!method.getName().equals("create")) {
+                            return result;
+                        }
+                        return Mono.from((Publisher<?>) result)
+                                .map(connection -> proxy(Connection.class,
+                                        (connectionProxy, connectionMethod, connectionArgs) -> {
+                                            if (connectionMethod.getName().equals("createStatement")) {
+                                                statements.add((String) connectionArgs[0]);
+                                            }
+                                            return invoke(connection, connectionMethod, connectionArgs);
+                                        }));
+                    });
+                }
+            };
+        }
+    }
+}
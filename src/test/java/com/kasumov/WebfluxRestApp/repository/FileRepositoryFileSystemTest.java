@@ -0,0 +1,67 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.dto.FileContentDTO;
+import com.kasumov.WebfluxRestApp.dto.StoredFileDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileRepositoryFileSystemTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @TempDir
+    private Path root;
+
+    private FileRepositoryFileSystem repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new FileRepositoryFileSystem();
+        ReflectionTestUtils.setField(repository, "rootDirectory", root.toString());
+        ReflectionTestUtils.invokeMethod(repository, "init");
+    }
+
+    @Test
+    void eTagOfContentAddressedFileIgnoresModificationTime() throws Exception {
+        StoredFileDTO original = upload("content");
+        Files.setLastModifiedTime(root.resolve(original.getKey()), FileTime.from(Instant.now().plusSeconds(60)));
+
+        StoredFileDTO duplicate = upload("content");
+        FileContentDTO metadata = repository.getFileMetadata(original.getKey()).block(TIMEOUT);
+
+        assertThat(original.getETag()).isEqualTo("\"" + original.getKey() + "\"");
+        assertThat(duplicate.isDeduplicated()).isTrue();
+        assertThat(duplicate.getETag()).isEqualTo(original.getETag());
+        assertThat(metadata.getETag()).isEqualTo(original.getETag());
+        assertThat(repository.findStoredFile(original.getKey()).block(TIMEOUT).getETag()).isEqualTo(original.getETag());
+    }
+
+    @Test
+    void eTagOfLegacyNamedFileTracksModificationTime() throws Exception {
+        Path legacy = Files.writeString(root.resolve("legacy.txt"), "content");
+        String before = repository.getFileMetadata("legacy.txt").block(TIMEOUT).getETag();
+
+        Files.setLastModifiedTime(legacy, FileTime.from(Instant.now().plusSeconds(60)));
+
+        assertThat(repository.getFileMetadata("legacy.txt").block(TIMEOUT).getETag()).isNotEqualTo(before);
+    }
+
+    private StoredFileDTO upload(String content) {
+        return repository.uploadUserFileToStorage(Flux.just(DefaultDataBufferFactory.sharedInstance
+                        .wrap(content.getBytes(StandardCharsets.UTF_8))))
+                .block(TIMEOUT);
+    }
+}
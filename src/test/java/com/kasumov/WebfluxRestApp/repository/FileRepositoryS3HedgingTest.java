@@ -0,0 +1,118 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.ResponsePublisher;
+import software.amazon.awssdk.core.async.SdkPublisher;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.Tier;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class FileRepositoryS3HedgingTest {
+
+    private static final Duration FAST = Duration.ofMillis(5);
+    private static final Duration SLOW = Duration.ofSeconds(2);
+    private static final Duration HEDGE_MIN_DELAY = Duration.ofMillis(50);
+
+    private final Queue<Duration> latencies = new ConcurrentLinkedQueue<>();
+    private MeterRegistry meterRegistry;
+    private FileRepositoryS3 repository;
+
+    @BeforeEach
+    void setUp() {
+        S3AsyncClient s3Client = mock(S3AsyncClient.class);
+        doAnswer(invocation -> respondAfter(latencies.poll()))
+                .when(s3Client).getObject(any(GetObjectRequest.class),
+                        ArgumentMatchers.<AsyncResponseTransformer<GetObjectResponse, ResponsePublisher<GetObjectResponse>>>any());
+
+        meterRegistry = new SimpleMeterRegistry();
+        repository = new FileRepositoryS3(s3Client, mock(S3Presigner.class), meterRegistry);
+        ReflectionTestUtils.setField(repository, "bucketName", "bucket");
+        ReflectionTestUtils.setField(repository, "keyPrefix", "files");
+        ReflectionTestUtils.setField(repository, "multipartPartSize", DataSize.ofMegabytes(8));
+        ReflectionTestUtils.setField(repository, "multipartConcurrency", 1);
+        ReflectionTestUtils.setField(repository, "multipartMaxRetries", 0);
+        ReflectionTestUtils.setField(repository, "getDeadline", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(repository, "hedgingEnabled", true);
+        ReflectionTestUtils.setField(repository, "hedgingMinDelay", HEDGE_MIN_DELAY);
+        ReflectionTestUtils.setField(repository, "restoreDays", 1);
+        ReflectionTestUtils.setField(repository, "restoreTier", Tier.STANDARD);
+        ReflectionTestUtils.setField(repository, "restoreRetryAfter", Duration.ofMinutes(1));
+        ReflectionTestUtils.invokeMethod(repository, "init");
+    }
+
+    @Test
+    void hedgeBoundsTailLatencyWhenPrimaryStalls() {
+        int requests = 100;
+        List<Long> elapsedMillis = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            boolean stalled = i % 50 == 49;
+            latencies.add(stalled ? SLOW : FAST);
+            latencies.add(FAST);
+            long start = System.nanoTime();
+            download();
+            elapsedMillis.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            latencies.clear();
+        }
+        Collections.sort(elapsedMillis);
+
+        long p99 = elapsedMillis.get((int) Math.ceil(requests * 0.99) - 1);
+        assertThat(p99).isLessThan(SLOW.toMillis() / 4);
+        assertThat(meterRegistry.counter("s3.get.hedges.fired").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("s3.get.hedges.won").count()).isEqualTo(2);
+    }
+
+    @Test
+    void primaryWinningAfterHedgeFiredIsNotCountedAsHedgeWin() {
+        latencies.add(HEDGE_MIN_DELAY.multipliedBy(2));
+        latencies.add(SLOW);
+
+        assertThat(download()).isEqualTo("content");
+        assertThat(meterRegistry.counter("s3.get.hedges.fired").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("s3.get.hedges.won").count()).isZero();
+    }
+
+    private String download() {
+        return repository.downloadFileFromStorage("key", null, null)
+                .flatMap(fileContent -> fileContent.getContent()
+                        .map(dataBuffer -> dataBuffer.toString(StandardCharsets.UTF_8))
+                        .reduce(String::concat))
+                .block(Duration.ofSeconds(5));
+    }
+
+    private static CompletableFuture<ResponsePublisher<GetObjectResponse>> respondAfter(Duration latency) {
+        byte[] body = "content".getBytes(StandardCharsets.UTF_8);
+        GetObjectResponse response = GetObjectResponse.builder()
+                .contentLength((long) body.length)
+                .eTag("\"etag\"")
+                .build();
+        return CompletableFuture.supplyAsync(
+                () -> new ResponsePublisher<>(response, SdkPublisher.adapt(Flux.just(ByteBuffer.wrap(body)))),
+                CompletableFuture.delayedExecutor(latency.toMillis(), TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,135 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest
+@Testcontainers(disabledWithoutDocker = true)
+class LookupIndexesTest {
+
+    private static final String SEQUENCE = "WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < %d) ";
+
+    @Container
+    private static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:mysql://" + mysql.getHost() + ":"
+                + mysql.getMappedPort(MySQLContainer.MYSQL_PORT) + "/" + mysql.getDatabaseName());
+        registry.add("spring.r2dbc.username", mysql::getUsername);
+        registry.add("spring.r2dbc.password", mysql::getPassword);
+        registry.add("spring.flyway.url", mysql::getJdbcUrl);
+        registry.add("spring.flyway.user", mysql::getUsername);
+        registry.add("spring.flyway.password", mysql::getPassword);
+    }
+
+    @BeforeEach
+    void setUp() {
+        execute("DELETE FROM event");
+        execute("DELETE FROM file");
+        execute("DELETE FROM users");
+        execute("INSERT INTO users (id, username, password, role, first_name, last_name, enabled) " +
+                SEQUENCE.formatted(100) +
+                "SELECT n, CONCAT('user', n), 'secret', 'USER', 'First', 'Last', TRUE FROM seq");
+        execute("INSERT INTO file (id, file_name, location, object_key, checksum, status) " +
+                SEQUENCE.formatted(1000) +
+                "SELECT n, CONCAT('file', n % 250, '.txt'), CONCAT('/files/', SHA2(n, 256)), SHA2(n, 256), " +
+                "SHA2(n, 256), IF(n % 10 = 0, 'DELETED', 'ACTIVE') FROM seq");
+        execute("INSERT INTO event (user_id, file_id) " +
+                SEQUENCE.formatted(1000) +
+                "SELECT (n - 1) % 100 + 1, n FROM seq");
+        execute("ANALYZE TABLE users, file, event");
+    }
+
+    @Test
+    void latestFileByNameForUserUsesFileNameIndexAndUniqueOwnershipKey() throws Exception {
+        Map<String, Plan> plans = explain(query(FileRepository.class, "findLatestActiveByFileNameAndUserId", String.class, Long.class),
+                Map.of("fileName", "file7.txt", "userId", 7L));
+
+        assertThat(plans.get("f").key()).isEqualTo("idx_file_file_name_status");
+        assertThat(plans.get("e")).isEqualTo(new Plan("user_id", "eq_ref"));
+    }
+
+    @Test
+    void userEventListingUsesUserStatusIndex() throws Exception {
+        Map<String, Plan> plans = explain(query(EventRepository.class, "findAllActiveByUserId", Long.class),
+                Map.of("userId", 7L));
+
+        assertThat(plans.get("event").key()).isEqualTo("idx_event_user_id_status");
+    }
+
+    @Test
+    void ownershipCheckIsPointLookupOnUniqueUserFileKey() throws Exception {
+        Map<String, Plan> plans = explain(query(EventRepository.class, "findActiveByFileIdAndUserId", Long.class, Long.class),
+                Map.of("fileId", 7L, "userId", 7L));
+
+        assertThat(plans.get("event")).isEqualTo(new Plan("user_id", "const"));
+    }
+
+    @Test
+    void activeUserByUsernameIsPointLookupOnUniqueUsernameKey() throws Exception {
+        Map<String, Plan> plans = explain(query(UserRepository.class, "findActiveByUsername", String.class),
+                Map.of("username", "user7"));
+
+        assertThat(plans.get("users")).isEqualTo(new Plan("username", "const"));
+    }
+
+    @Test
+    void activeChecksumLookupUsesChecksumIndex() throws Exception {
+        Map<String, Plan> plans = explain(query(FileRepository.class, "findActiveChecksumsIn", Collection.class),
+                Map.of("checksums", List.of(sha256("7"), sha256("8"))));
+
+        assertThat(plans.get("file").key()).isEqualTo("idx_file_checksum_status");
+    }
+
+    private static String query(Class<?> repository, String method, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return repository.getMethod(method, parameterTypes).getAnnotation(Query.class).value();
+    }
+
+    private Map<String, Plan> explain(String sql, Map<String, Object> parameters) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql("EXPLAIN " + sql);
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            spec = spec.bind(parameter.getKey(), parameter.getValue());
+        }
+        Map<String, Plan> plans = new HashMap<>();
+        spec.map(row -> Map.entry(row.get("table", String.class),
+                        new Plan(row.get("key", String.class), row.get("type", String.class))))
+                .all()
+                .doOnNext(entry -> plans.put(entry.getKey(), entry.getValue()))
+                .blockLast();
+        return plans;
+    }
+
+    private static String sha256(String value) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    private record Plan(String key, String type) {
+    }
+}
@@ -0,0 +1,67 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResumableSha256Test {
+
+    @Test
+    void digestMatchesMessageDigestAcrossBlockBoundaries() throws Exception {
+        for (int size : new int[]{0, 1, 55, 56, 63, 64, 65, 119, 120, 128, 1000, 1 << 20}) {
+            byte[] content = randomBytes(size);
+            ResumableSha256 digest = ResumableSha256.restore(null);
+            digest.update(content);
+
+            assertThat(digest.hex()).as("size %d", size).isEqualTo(sha256(content));
+            assertThat(digest.size()).isEqualTo(size);
+        }
+    }
+
+    @Test
+    void digestResumedFromSavedStateMatchesMessageDigest() throws Exception {
+        byte[] content = randomBytes(300_000);
+        byte[] state = null;
+        int offset = 0;
+        while (offset < content.length) {
+            int length = Math.min(ThreadLocalRandom.current().nextInt(1, 70_000), content.length - offset);
+            ResumableSha256 digest = ResumableSha256.restore(state);
+            digest.update(Arrays.copyOfRange(content, offset, offset + length));
+            state = digest.state();
+            offset += length;
+        }
+
+        ResumableSha256 resumed = ResumableSha256.restore(state);
+        assertThat(resumed.hex()).isEqualTo(sha256(content));
+        assertThat(resumed.hex()).isEqualTo(resumed.hex());
+        assertThat(resumed.size()).isEqualTo(content.length);
+    }
+
+    @Test
+    void corruptStateIsRejected() {
+        ResumableSha256 digest = ResumableSha256.restore(null);
+        digest.update(randomBytes(10));
+        byte[] state = digest.state();
+
+        assertThatThrownBy(() -> ResumableSha256.restore(Arrays.copyOf(state, state.length - 1)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ResumableSha256.restore(new byte[8]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
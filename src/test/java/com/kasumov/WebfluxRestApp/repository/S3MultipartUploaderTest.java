@@ -0,0 +1,299 @@
+package com.kasumov.WebfluxRestApp.repository;
+
+import com.kasumov.WebfluxRestApp.dto.StoredFileDTO;
+import com.kasumov.WebfluxRestApp.dto.UploadedPartDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.testcontainers.containers.localstack.LocalStackContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class S3MultipartUploaderTest {
+
+    private static final Logger log = LoggerFactory.getLogger(S3MultipartUploaderTest.class);
+
+    private static final String BUCKET_NAME = "webflux-rest-app";
+    private static final String KEY_PREFIX = "files";
+    private static final int PART_SIZE = 5 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Container
+    private static final LocalStackContainer localStack =
+            new LocalStackContainer(DockerImageName.parse("localstack/localstack:3.0"))
+                    .withServices(LocalStackContainer.Service.S3);
+
+    private static final Queue<Class<?>> requests = new ConcurrentLinkedQueue<>();
+    private static S3AsyncClient s3Client;
+
+    private S3MultipartUploader uploader;
+
+    @BeforeAll
+    static void createBucket() {
+        s3Client = S3AsyncClient.builder()
+                .endpointOverride(localStack.getEndpoint())
+                .region(Region.of(localStack.getRegion()))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(localStack.getAccessKey(), localStack.getSecretKey())))
+                .forcePathStyle(true)
+                .overrideConfiguration(configuration -> configuration.addExecutionInterceptor(new ExecutionInterceptor() {
+                    @Override
+                    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+                        requests.add(context.request().getClass());
+                    }
+                }))
+                .build();
+        s3Client.createBucket(request -> request.bucket(BUCKET_NAME)).join();
+    }
+
+    @AfterAll
+    static void closeClient() {
+        s3Client.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        uploader = new S3MultipartUploader(s3Client, BUCKET_NAME, KEY_PREFIX, PART_SIZE, 2, 1);
+        requests.clear();
+    }
+
+    @Test
+    void uploadSmallerThanPartUsesSinglePut() throws Exception {
+        byte[] content = randomBytes(PART_SIZE / 2);
+
+        StoredFileDTO storedFile = uploader.upload(toDataBuffers(content)).block(TIMEOUT);
+
+        assertThat(storedFile).isNotNull();
+        assertThat(storedFile.getKey()).isEqualTo(sha256(content));
+        assertThat(storedFile.getSize()).isEqualTo(content.length);
+        assertThat(storedFile.isDeduplicated()).isFalse();
+        assertThat(requests).contains(PutObjectRequest.class)
+                .doesNotContain(CreateMultipartUploadRequest.class);
+        assertThat(objectSize(storedFile.getKey())).isEqualTo(content.length);
+    }
+
+    @Test
+    void uploadOfAtLeastOnePartUsesMultipart() throws Exception {
+        byte[] content = randomBytes(PART_SIZE * 2 + 1024);
+
+        StoredFileDTO storedFile = uploader.upload(toDataBuffers(content)).block(TIMEOUT);
+
+        assertThat(storedFile).isNotNull();
+        assertThat(storedFile.getKey()).isEqualTo(sha256(content));
+        assertThat(storedFile.getSize()).isEqualTo(content.length);
+        assertThat(storedFile.isDeduplicated()).isFalse();
+        assertThat(requests).contains(CreateMultipartUploadRequest.class, CompleteMultipartUploadRequest.class)
+                .doesNotContain(PutObjectRequest.class);
+        assertThat(requests.stream().filter(UploadPartRequest.class::equals)).hasSize(3);
+        assertThat(objectSize(storedFile.getKey())).isEqualTo(content.length);
+        assertThat(pendingUploads()).isEmpty();
+        assertThat(stagingObjects()).isEmpty();
+    }
+
+    @Test
+    void duplicateMultipartUploadIsAborted() {
+        byte[] content = randomBytes(PART_SIZE + 1024);
+        StoredFileDTO original = uploader.upload(toDataBuffers(content)).block(TIMEOUT);
+        requests.clear();
+
+        StoredFileDTO duplicate = uploader.upload(toDataBuffers(content)).block(TIMEOUT);
+
+        assertThat(duplicate).isNotNull();
+        assertThat(duplicate.getKey()).isEqualTo(original.getKey());
+        assertThat(duplicate.isDeduplicated()).isTrue();
+        assertThat(requests).contains(AbortMultipartUploadRequest.class)
+                .doesNotContain(CompleteMultipartUploadRequest.class);
+        assertThat(pendingUploads()).isEmpty();
+    }
+
+    @Test
+    void cancelledMultipartUploadIsAborted() throws Exception {
+        byte[] content = randomBytes(PART_SIZE * 2);
+
+        Disposable upload = uploader.upload(toDataBuffers(content).concatWith(Flux.never())).subscribe();
+        awaitRequest(UploadPartRequest.class);
+        upload.dispose();
+        awaitRequest(AbortMultipartUploadRequest.class);
+
+        assertThat(requests).doesNotContain(CompleteMultipartUploadRequest.class);
+        for (int attempt = 0; attempt < 50 && !pendingUploads().isEmpty(); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(pendingUploads()).isEmpty();
+    }
+
+    @Test
+    void stagedObjectIsMovedToContentKeyOrDeduplicated() throws Exception {
+        byte[] content = randomBytes(1024);
+        String checksum = sha256(content);
+
+        putStaged("first", content, checksum);
+        StoredFileDTO first = uploader.completeStagedObject("first", checksum, content.length).block(TIMEOUT);
+        putStaged("second", content, checksum);
+        StoredFileDTO second = uploader.completeStagedObject("second", checksum, content.length).block(TIMEOUT);
+
+        assertThat(first).isNotNull();
+        assertThat(first.getKey()).isEqualTo(checksum);
+        assertThat(first.isDeduplicated()).isFalse();
+        assertThat(second).isNotNull();
+        assertThat(second.isDeduplicated()).isTrue();
+        assertThat(objectSize(checksum)).isEqualTo(content.length);
+        assertThat(stagingObjects()).isEmpty();
+    }
+
+    @Test
+    void completingWithoutStagedObjectFindsNothing() throws Exception {
+        byte[] content = randomBytes(1024);
+        String checksum = sha256(content);
+        uploader.upload(toDataBuffers(content)).block(TIMEOUT);
+
+        assertThat(uploader.completeStagedObject("missing", checksum, content.length).blockOptional(TIMEOUT)).isEmpty();
+    }
+
+    @Test
+    void resumableUploadIsKeyedByPersistedDigestStateWithoutReadingItBack() throws Exception {
+        byte[] content = randomBytes(PART_SIZE * 2 + 1024);
+        String uploadKey = "resumable";
+        String uploadId = uploader.createUpload(uploadKey).block(TIMEOUT);
+
+        List<UploadedPartDTO> firstChunk = uploader.uploadParts(uploadKey, uploadId, 1, PART_SIZE, content.length, null,
+                        toDataBuffers(Arrays.copyOf(content, PART_SIZE)))
+                .collectList()
+                .block(TIMEOUT);
+        byte[] digestState = firstChunk.get(firstChunk.size() - 1).getDigestState();
+        List<UploadedPartDTO> secondChunk = uploader.uploadParts(uploadKey, uploadId, 2, PART_SIZE, content.length - PART_SIZE,
+                        digestState, toDataBuffers(Arrays.copyOfRange(content, PART_SIZE, content.length)))
+                .collectList()
+                .block(TIMEOUT);
+        List<UploadedPartDTO> parts = new ArrayList<>(firstChunk);
+        parts.addAll(secondChunk);
+        requests.clear();
+
+        StoredFileDTO storedFile = uploader.completeUpload(uploadKey, uploadId, parts,
+                secondChunk.get(secondChunk.size() - 1).getDigestState()).block(TIMEOUT);
+
+        assertThat(parts).hasSize(3);
+        assertThat(storedFile).isNotNull();
+        assertThat(storedFile.getKey()).isEqualTo(sha256(content));
+        assertThat(storedFile.getSize()).isEqualTo(content.length);
+        assertThat(requests).contains(CompleteMultipartUploadRequest.class)
+                .doesNotContain(GetObjectRequest.class);
+        assertThat(objectSize(storedFile.getKey())).isEqualTo(content.length);
+        assertThat(stagingObjects()).isEmpty();
+    }
+
+    @Test
+    void reportsMultipartThroughputAgainstSinglePut() {
+        int size = PART_SIZE * 8;
+        S3MultipartUploader singlePutUploader = new S3MultipartUploader(s3Client, BUCKET_NAME, KEY_PREFIX, size + 1L, 1, 1);
+        S3MultipartUploader multipartUploader = new S3MultipartUploader(s3Client, BUCKET_NAME, KEY_PREFIX, PART_SIZE, 4, 1);
+        singlePutUploader.upload(toDataBuffers(randomBytes(PART_SIZE))).block(TIMEOUT);
+        multipartUploader.upload(toDataBuffers(randomBytes(PART_SIZE * 2))).block(TIMEOUT);
+
+        double singlePut = throughput(singlePutUploader, size);
+        double multipart = throughput(multipartUploader, size);
+
+        log.info("UPLOAD_THROUGHPUT: {} MiB single PUT {} MiB/s, multipart x4 {} MiB/s ({}x)",
+                size / (1024 * 1024), String.format("%.1f", singlePut), String.format("%.1f", multipart),
+                String.format("%.2f", multipart / singlePut));
+        assertThat(singlePut).isPositive();
+        assertThat(multipart).isPositive();
+    }
+
+    private static double throughput(S3MultipartUploader uploader, int size) {
+        byte[] content = randomBytes(size);
+        long start = System.nanoTime();
+        StoredFileDTO storedFile = uploader.upload(toDataBuffers(content)).block(TIMEOUT);
+        long elapsed = System.nanoTime() - start;
+        assertThat(storedFile).isNotNull();
+        assertThat(storedFile.isDeduplicated()).isFalse();
+        return size / (1024.0 * 1024.0) / (elapsed / 1_000_000_000.0);
+    }
+
+    private static Flux<DataBuffer> toDataBuffers(byte[] content) {
+        return Flux.range(0, (content.length + BUFFER_SIZE - 1) / BUFFER_SIZE)
+                .map(index -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(content,
+                        index * BUFFER_SIZE, Math.min(BUFFER_SIZE, content.length - index * BUFFER_SIZE))));
+    }
+
+    private void putStaged(String uploadKey, byte[] content, String checksum) {
+        s3Client.putObject(request -> request.bucket(BUCKET_NAME)
+                                .key(uploader.stagingKey(uploadKey))
+                                .checksumSHA256(Base64.getEncoder().encodeToString(HexFormat.of().parseHex(checksum))),
+                        AsyncRequestBody.fromBytes(content))
+                .join();
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private static long objectSize(String key) {
+        return s3Client.headObject(request -> request.bucket(BUCKET_NAME).key(KEY_PREFIX + "/" + key))
+                .join()
+                .contentLength();
+    }
+
+    private static List<?> pendingUploads() {
+        return s3Client.listMultipartUploads(request -> request.bucket(BUCKET_NAME))
+                .join()
+                .uploads();
+    }
+
+    private static List<?> stagingObjects() {
+        return s3Client.listObjectsV2(request -> request.bucket(BUCKET_NAME).prefix(KEY_PREFIX + "/uploads/"))
+                .join()
+                .contents();
+    }
+
+    private static void awaitRequest(Class<?> requestType) throws InterruptedException {
+        for (int attempt = 0; attempt < 300 && !requests.contains(requestType); attempt++) {
+            Thread.sleep(100);
+        }
+        assertThat(requests).contains(requestType);
+    }
+}
@@ -0,0 +1,111 @@
+package com.kasumov.WebfluxRestApp.service.impl;
+
+import com.kasumov.WebfluxRestApp.model.StorageCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StorageCodecStreamTest {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_CHUNK_SIZE = 128 * 1024;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @ParameterizedTest
+    @EnumSource(value = StorageCodec.class, names = {"GZIP", "ZSTD"})
+    void decodeRestoresEncodedContent(StorageCodec codec) {
+        byte[] content = randomBytes(3 * BUFFER_SIZE + 17);
+
+        byte[] decoded = join(StorageCodecStream.decode(StorageCodecStream.encode(toDataBuffers(content), codec, 3), codec));
+
+        assertThat(decoded).isEqualTo(content);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StorageCodec.class, names = {"GZIP", "ZSTD"})
+    void highlyCompressibleContentIsDecodedInBoundedChunksOnDemand(StorageCodec codec) {
+        byte[] content = new byte[64 * 1024 * 1024];
+        byte[] encoded = join(StorageCodecStream.encode(toDataBuffers(content), codec, 3));
+
+        StepVerifier.create(StorageCodecStream.decode(toDataBuffers(encoded), codec), 1)
+                .assertNext(dataBuffer -> assertThat(dataBuffer.readableByteCount()).isBetween(1, MAX_CHUNK_SIZE))
+                .expectNoEvent(Duration.ofMillis(100))
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(dataBuffer -> dataBuffer.readableByteCount() <= MAX_CHUNK_SIZE)
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void gzipDecodeHandlesSplitHeaderAndConcatenatedMembers() throws Exception {
+        byte[] first = randomBytes(1000);
+        byte[] second = randomBytes(2000);
+        byte[] encoded = concat(gzip(first), gzip(second));
+
+        Flux<DataBuffer> bytes = Flux.range(0, encoded.length)
+                .map(index -> DefaultDataBufferFactory.sharedInstance.wrap(new byte[]{encoded[index]}));
+
+        assertThat(join(StorageCodecStream.decode(bytes, StorageCodec.GZIP))).isEqualTo(concat(first, second));
+    }
+
+    @Test
+    void truncatedGzipFails() throws Exception {
+        byte[] encoded = gzip(randomBytes(1000));
+
+        StepVerifier.create(StorageCodecStream.decode(toDataBuffers(Arrays.copyOf(encoded, encoded.length - 4)), StorageCodec.GZIP))
+                .thenConsumeWhile(dataBuffer -> true)
+                .expectError(EOFException.class)
+                .verify(TIMEOUT);
+    }
+
+    private static Flux<DataBuffer> toDataBuffers(byte[] content) {
+        return Flux.range(0, (content.length + BUFFER_SIZE - 1) / BUFFER_SIZE)
+                .map(index -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(content,
+                        index * BUFFER_SIZE, Math.min(BUFFER_SIZE, content.length - index * BUFFER_SIZE))));
+    }
+
+    private static byte[] join(Flux<DataBuffer> dataBuffers) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        dataBuffers.doOnNext(dataBuffer -> {
+                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
+                    dataBuffer.read(bytes);
+                    output.writeBytes(bytes);
+                })
+                .blockLast(TIMEOUT);
+        return output.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] content) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(content);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] bytes = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, bytes, first.length, second.length);
+        return bytes;
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        ThreadLocalRandom.current().nextBytes(bytes);
+        return bytes;
+    }
+}